@@ -10,6 +10,7 @@ import implementation.admin.ArrangementManager;
 import implementation.admin.RevenueViewer;
 import implementation.general.LogAlert;
 import implementation.general.MessageDisplay;
+import implementation.general.Money;
 import implementation.general.Validator;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -18,17 +19,25 @@ import javafx.scene.text.Text;
 import javafx.stage.Popup;
 import javafx.stage.Stage;
 import models.entities.*;
+import models.enums.RevenueDimension;
 import models.enums.RoomType;
 import models.enums.Transport;
+import models.indexes.RevenueMeasures;
 
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 public class AdminController {
     private Agency agency;
+    private final Map<RevenueDimension, Object> revenueFilter = new EnumMap<>(RevenueDimension.class);
+    private final List<Object> breakdownValues = new ArrayList<>();
 
     public AdminController() throws SQLException {
-        this.agency = new Agency();
+        this.agency = Agency.getInstance();
     }
 
     public Agency getAgency() {
@@ -62,6 +71,7 @@ public class AdminController {
             tfUsername.clear();
         } catch (SQLException e) {
             MessageDisplay.showAlert(Agency.DATABASE_ERROR, Alert.AlertType.INFORMATION);
+            Agency.invalidate();
         }
     }
 
@@ -83,13 +93,14 @@ public class AdminController {
             Validator.isTripDateAfterArrivalDate(dpTripDate.getValue(), dpArrivalDate.getValue());
             Validator.isPriceValid(tfArrangementPrice.getText());
             Validator.isPriceValid(tfPricePerNight.getText());
+            Validator.isStarReviewValid(tfStarReview.getText());
 
             Accommodation accomm = new Accommodation(
                     ArrangementManager.nextAccommodationID(agency.getAccommodations()),
                     Integer.parseInt(tfStarReview.getText()),
                     tfAccommodationName.getText(),
                     RoomType.fromString(cbRoomType.getValue()),
-                    Double.parseDouble(tfPricePerNight.getText())
+                    Money.parse(tfPricePerNight.getText())
             );
 
             ArrangementManager.addAccommodation(agency.getAccommodations(), accomm);
@@ -103,7 +114,7 @@ public class AdminController {
                             Transport.fromString(cbTransport.getValue()),
                             dpTripDate.getValue(),
                             dpArrivalDate.getValue(),
-                            Double.parseDouble(tfArrangementPrice.getText()),
+                            Money.parse(tfArrangementPrice.getText()),
                             accomm
                     )
             );
@@ -121,6 +132,7 @@ public class AdminController {
             dpArrivalDate.setValue(null);
         } catch (SQLException e) {
             MessageDisplay.showAlert(Agency.DATABASE_ERROR, Alert.AlertType.INFORMATION);
+            Agency.invalidate();
         }
     }
 
@@ -140,7 +152,7 @@ public class AdminController {
                             Transport.fromString("Bus"),
                             dp.getValue(),
                             dp.getValue(),
-                            Double.parseDouble(tfPrice.getText()),
+                            Money.parse(tfPrice.getText()),
                             null
                     )
             );
@@ -155,29 +167,34 @@ public class AdminController {
             tfPrice.clear();
         } catch (SQLException e) {
             MessageDisplay.showAlert(Agency.DATABASE_ERROR, Alert.AlertType.INFORMATION);
+            Agency.invalidate();
         }
     }
 
     public void cancelBtnEvent(Arrangement arr, Label lbl, ListView<Arrangement> lv) {
         if (arr != null) {
-            if (ArrangementManager.agencyMoneyLost(agency.getReservations(), arr) == 0)
+            long lost = ArrangementManager.agencyMoneyLost(agency.getReservations(), arr);
+
+            if (lost == 0)
                 MessageDisplay.showMessageLabel(lbl, ArrangementManager.NO_RESERVATIONS, true);
             else {
-                MessageDisplay.showMessageLabel(
-                        lbl,
-                        "Agency lost: " + ArrangementManager.agencyMoneyLost(agency.getReservations(), arr),
-                        false
-                );
-
                 try {
-                    ArrangementManager.returnMoneyToClients(
+                    int refunded = ArrangementManager.returnMoneyToClients(
                             agency.getBankAccounts(),
                             agency.getReservations(),
                             arr,
                             agency.getAgencyBankAccount()
                     );
+
+                    MessageDisplay.showMessageLabel(
+                            lbl,
+                            "Agency lost: " + Money.format(lost) + "\nRefunded reservations: " + refunded,
+                            false
+                    );
                 } catch (SQLException e) {
                     MessageDisplay.showAlert(Agency.DATABASE_ERROR, Alert.AlertType.INFORMATION);
+                    Agency.invalidate();
+                    return;
                 }
 
                 LogAlert.updateAlertFile(agency.getReservations(), arr);
@@ -192,6 +209,8 @@ public class AdminController {
                 );
             } catch (SQLException e) {
                 MessageDisplay.showAlert(Agency.DATABASE_ERROR, Alert.AlertType.INFORMATION);
+                Agency.invalidate();
+                return;
             }
 
             lv.getItems().remove(arr);
@@ -250,6 +269,7 @@ public class AdminController {
             pfOld.clear();
         } catch (SQLException e) {
             lbl.setText(Agency.DATABASE_ERROR);
+            Agency.invalidate();
         }
     }
 
@@ -258,10 +278,55 @@ public class AdminController {
     }
 
     public String printRevenue() {
-        return "Agency revenue: " + agency.getAgencyBankAccount().getBalance();
+        return "Agency revenue: " + Money.format(agency.getAgencyBankAccount().getBalance());
+    }
+
+    public void breakdownEvent(ChoiceBox<RevenueDimension> cb, Label lbl, ListView<String> lv) {
+        RevenueDimension dimension = cb.getValue();
+        if (dimension == null)
+            return;
+
+        Map<Object, RevenueMeasures> breakdown = agency.getReservations().getRevenueBreakdown(revenueFilter, dimension);
+        breakdownValues.clear();
+        breakdownValues.addAll(breakdown.keySet());
+
+        lbl.setText(RevenueViewer.revenuePath(revenueFilter) + "\n" + RevenueViewer.revenueInfo(agency.getReservations().getRevenue(revenueFilter)));
+        lv.getItems().setAll(RevenueViewer.revenueRows(breakdown));
+    }
+
+    public void breakdownItemEvent(int index, ChoiceBox<RevenueDimension> cb, Label lbl, ListView<String> lv) {
+        if (index < 0 || index >= breakdownValues.size())
+            return;
+
+        revenueFilter.put(cb.getValue(), breakdownValues.get(index));
+        RevenueDimension next = RevenueViewer.nextDimension(revenueFilter);
+        // Changing the value fires the choice box's action, which renders the breakdown
+        if (next != null && next != cb.getValue())
+            cb.setValue(next);
+        else
+            breakdownEvent(cb, lbl, lv);
+    }
+
+    public void resetBreakdownEvent(ChoiceBox<RevenueDimension> cb, Label lbl, ListView<String> lv) {
+        revenueFilter.clear();
+        breakdownEvent(cb, lbl, lv);
+    }
+
+    public void periodRevenueEvent(DatePicker dpFrom, DatePicker dpTo, Label lbl) {
+        try {
+            if (dpFrom.getValue() == null || dpTo.getValue() == null || dpTo.getValue().isBefore(dpFrom.getValue()))
+                throw new InvalidDateException();
+
+            lbl.setText(
+                    "Paid: " + Money.format(RevenueViewer.paidInPeriod(agency.getReservations(), dpFrom.getValue(), dpTo.getValue()))
+                    + " Remaining: " + Money.format(RevenueViewer.remainingInPeriod(agency.getReservations(), dpFrom.getValue(), dpTo.getValue()))
+            );
+        } catch (InvalidDateException e) {
+            MessageDisplay.showMessageLabel(lbl, e.getMessage(), false);
+        }
     }
 
     public String printTotalRemaining() {
-        return "Total remaining: " + RevenueViewer.totalRemaining(agency.getReservations());
+        return "Total remaining: " + Money.format(RevenueViewer.totalRemaining(agency.getReservations()));
     }
 }
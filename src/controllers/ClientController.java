@@ -6,9 +6,11 @@ import exceptions.InvalidInputException;
 import exceptions.PasswordMismatchException;
 import exceptions.UnsuccessfulReservationException;
 import implementation.admin.ArrangementManager;
+import implementation.client.ArrangementQuery;
+import implementation.client.ArrangementViewer;
 import implementation.client.ReservationManager;
 import implementation.general.MessageDisplay;
-import implementation.general.TransactionManager;
+import implementation.general.Money;
 import implementation.general.Validator;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
@@ -18,14 +20,18 @@ import javafx.stage.Popup;
 import javafx.stage.Stage;
 import models.entities.*;
 import models.enums.ReservationType;
+import models.enums.RoomType;
+import models.enums.Transport;
+import models.indexes.ArrangementSearchResult;
 
 import java.sql.SQLException;
+import java.time.LocalDate;
 
 public class ClientController {
     private Agency agency;
 
     public ClientController() throws SQLException {
-        agency = new Agency();
+        agency = Agency.getInstance();
     }
 
     public Agency getAgency() {
@@ -46,6 +52,17 @@ public class ClientController {
         }
     }
 
+    public void filterBtnEvent(ListView<Arrangement> lv, Label lbl, Label lblFacets, String price, String destination, String starReview, RoomType roomType, Transport transport, LocalDate tripDate, LocalDate arrivalDate) {
+        try {
+            ArrangementQuery query = ArrangementQuery.parse(price, destination, starReview, roomType, transport, tripDate, arrivalDate);
+            ArrangementSearchResult result = ArrangementViewer.searchArrangements(agency.getArrangements(), query);
+            lv.getItems().setAll(result.getArrangements());
+            lblFacets.setText(ArrangementViewer.facetSummary(result.getFacetCounts()));
+        } catch (InvalidInputException e) {
+            MessageDisplay.showMessageLabel(lbl, e.getMessage(), false);
+        }
+    }
+
     public void cancelBtnEvent(Reservation res, BankAccount bankAccount, Label lbl) {
         if (res == null)
             MessageDisplay.showMessageLabel(lbl, ReservationManager.RESERVATION_NOT_SELECTED, false);
@@ -54,10 +71,11 @@ public class ClientController {
                 MessageDisplay.showMessageLabel(lbl, ReservationManager.CANCEL_UNAVAILABLE, false);
             else {
                 try {
-                    ReservationManager.clientReservationCancel(res, bankAccount, agency.getAgencyBankAccount());
-                    MessageDisplay.showMessageLabel(lbl, ReservationManager.SUCCESSFUL_RESERVATION_CANCEL + bankAccount.getBalance(), true);
+                    ReservationManager.clientReservationCancel(agency.getReservations(), res, bankAccount, agency.getAgencyBankAccount());
+                    MessageDisplay.showMessageLabel(lbl, ReservationManager.SUCCESSFUL_RESERVATION_CANCEL + Money.format(bankAccount.getBalance()), true);
                 } catch (SQLException e) {
                     MessageDisplay.showAlert(Agency.DATABASE_ERROR, Alert.AlertType.INFORMATION);
+                    Agency.invalidate();
                 }
             }
         }
@@ -106,12 +124,12 @@ public class ClientController {
             Validator.passwordMatch(client.getPassword(), pf.getText());
             Validator.isPriceValid(tf.getText());
 
-            ReservationManager.payReservation(res, bankAccount, agency.getAgencyBankAccount(), Double.parseDouble(tf.getText()));
+            ReservationManager.payReservation(agency.getReservations(), res, bankAccount, agency.getAgencyBankAccount(), Money.parse(tf.getText()));
             popup.hide();
             txt1.setText(printTotalSpent(client));
             txt2.setText(printTotalRemaining(client));
-            lbl2.setText("Remaining amount for this reservation: " + res.unpaidAmount());
-            MessageDisplay.showMessageLabel(lbl1, ReservationManager.SUCCESSFUL_PAYMENT + bankAccount.getBalance(), true);
+            lbl2.setText("Remaining amount for this reservation: " + Money.format(res.unpaidAmount()));
+            MessageDisplay.showMessageLabel(lbl1, ReservationManager.SUCCESSFUL_PAYMENT + Money.format(bankAccount.getBalance()), true);
         } catch (EmptyInputException | UnsuccessfulReservationException e) {
             lbl3.setText(e.getMessage());
         } catch (PasswordMismatchException e) {
@@ -122,6 +140,7 @@ public class ClientController {
             tf.clear();
         } catch (SQLException e) {
             lbl3.setText(Agency.DATABASE_ERROR);
+            Agency.invalidate();
         }
     }
 
@@ -149,24 +168,25 @@ public class ClientController {
     private void confirmBtnEvent(Popup popup, Arrangement arr, Client client, BankAccount bankAccount, Label lbl1, Label lbl2, PasswordField pf) {
         try {
             Validator.passwordMatch(client.getPassword(), pf.getText());
-            ReservationManager.addReservation(
+            ReservationManager.reserveArrangement(
                     agency.getReservations(),
                     new Reservation(
                             client,
                             arr,
-                            ReservationType.ACTIVE,
                             arr.calculateTotalPrice(),
                             arr.getAmountForPayment()
-                    )
+                    ),
+                    bankAccount,
+                    agency.getAgencyBankAccount()
             );
-            TransactionManager.performTransaction(bankAccount, agency.getAgencyBankAccount(), arr.getAmountForPayment(), false);
             popup.hide();
-            MessageDisplay.showMessageLabel(lbl1, ReservationManager.SUCCESSFUL_RESERVATION + bankAccount.getBalance(), true);
+            MessageDisplay.showMessageLabel(lbl1, ReservationManager.SUCCESSFUL_RESERVATION + Money.format(bankAccount.getBalance()), true);
         } catch (PasswordMismatchException e) {
             lbl2.setText(e.getMessage());
             pf.clear();
         } catch (SQLException e) {
             lbl2.setText(Agency.DATABASE_ERROR);
+            Agency.invalidate();
         }
     }
 
@@ -214,14 +234,15 @@ public class ClientController {
             pfOld.clear();
         } catch (SQLException e) {
             lbl.setText(Agency.DATABASE_ERROR);
+            Agency.invalidate();
         }
     }
 
     public String printTotalSpent(Client client) {
-        return "Total spent: " + ReservationManager.clientMoneySpent(agency.getReservations(), client);
+        return "Total spent: " + Money.format(ReservationManager.clientMoneySpent(agency.getReservations(), client));
     }
 
     public String printTotalRemaining(Client client) {
-        return "Total remaining: " + ReservationManager.remainingAmountToPay(agency.getReservations(), client);
+        return "Total remaining: " + Money.format(ReservationManager.remainingAmountToPay(agency.getReservations(), client));
     }
 }
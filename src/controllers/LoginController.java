@@ -19,7 +19,7 @@ public class LoginController {
     private Agency agency;
 
     public LoginController() throws SQLException {
-        this.agency = new Agency();
+        this.agency = Agency.getInstance();
     }
 
     public void loginBtnEvent(Stage stage, TextField tfUsername, PasswordField pfPassword) {
@@ -28,6 +28,7 @@ public class LoginController {
         try {
             // Validation
             Validator.areInputsEmpty(inputs);
+            agency = Agency.getInstance();
             Login.isUserInDatabase(agency.getUsers(), tfUsername.getText(), pfPassword.getText());
             // Retrieve user
             User user = Login.getUserByUsername(agency.getUsers(), tfUsername.getText());
@@ -46,6 +47,8 @@ public class LoginController {
         } catch (InvalidInputException e) {
             MessageDisplay.showAlert(e.getMessage(), Alert.AlertType.INFORMATION);
             Validator.resetInputs(inputs);
+        } catch (SQLException e) {
+            MessageDisplay.showAlert(Agency.DATABASE_ERROR, Alert.AlertType.INFORMATION);
         }
     }
 }
@@ -1,6 +1,5 @@
 package controllers;
 
-import database.Database;
 import exceptions.*;
 import implementation.general.*;
 import javafx.scene.control.Alert;
@@ -9,6 +8,7 @@ import javafx.scene.control.TextField;
 import javafx.scene.control.TextInputControl;
 import javafx.stage.Stage;
 import models.entities.Agency;
+import models.entities.Client;
 
 import java.sql.SQLException;
 
@@ -16,7 +16,7 @@ public class RegistrationController {
     private Agency agency;
 
     public RegistrationController() throws SQLException {
-        this.agency = new Agency();
+        this.agency = Agency.getInstance();
     }
 
     public void signInBtnEvent(Stage stage, TextField tfFirstName, TextField tfLastName, TextField tfPhoneNumber, TextField tfJMBG, TextField tfAccountNumber, TextField tfUsername, PasswordField pfPassword, PasswordField pfConfirmPassword) {
@@ -38,15 +38,18 @@ public class RegistrationController {
             Registration.isJmbgValid(agency.getBankAccounts(), tfAccountNumber.getText(), tfJMBG.getText());
             Validator.passwordMatch(pfPassword.getText(), pfConfirmPassword.getText());
 
-            Database.registerClient(
-                    Registration.nextClientID(agency.getUsers()),
-                    tfFirstName.getText(),
-                    tfLastName.getText(),
-                    tfPhoneNumber.getText(),
-                    tfJMBG.getText(),
-                    tfAccountNumber.getText(),
-                    tfUsername.getText(),
-                    pfPassword.getText()
+            Registration.registerClient(
+                    agency.getUsers(),
+                    new Client(
+                            Registration.nextClientID(agency.getUsers()),
+                            tfFirstName.getText(),
+                            tfLastName.getText(),
+                            tfUsername.getText(),
+                            pfPassword.getText(),
+                            tfPhoneNumber.getText(),
+                            tfJMBG.getText(),
+                            tfAccountNumber.getText()
+                    )
             );
 
             LogAlert.logNewClient(tfUsername.getText());
@@ -65,6 +68,7 @@ public class RegistrationController {
             pfConfirmPassword.clear();
         } catch (SQLException e) {
             MessageDisplay.showAlert(Agency.DATABASE_ERROR, Alert.AlertType.INFORMATION);
+            Agency.invalidate();
         } catch (InvalidJmbgException e) {
             MessageDisplay.showAlert(e.getMessage(), Alert.AlertType.INFORMATION);
             tfJMBG.clear();
@@ -0,0 +1,297 @@
+package database;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The ConnectionPool class keeps a bounded set of open JDBC connections so that database
+ * operations borrow an existing connection instead of opening a new one every time.
+ * Connections are validated when borrowed, evicted after staying idle for too long
+ * and reported when they are held longer than the leak threshold.
+ */
+public class ConnectionPool implements AutoCloseable {
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int minSize;
+    private final int maxSize;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+    private final long borrowTimeoutMillis;
+
+    private final LinkedBlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+    private final Map<Connection, Lease> leased = new ConcurrentHashMap<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    /** Seconds the driver gets to answer a validation request. */
+    private final static int VALIDATION_TIMEOUT = 2;
+    /** Interval between two housekeeping runs in milliseconds. */
+    private final static long HOUSEKEEPING_PERIOD = 30_000;
+
+    /**
+     * Constructs a connection pool and opens the minimum number of connections.
+     *
+     * @param url                 the JDBC url of the database.
+     * @param user                the database user.
+     * @param password            the password of the database user.
+     * @param minSize             the number of connections kept open even when idle.
+     * @param maxSize             the maximum number of connections open at the same time.
+     * @param idleTimeoutMillis   the time after which an idle connection above the minimum is closed.
+     * @param leakThresholdMillis the time after which a borrowed connection is reported as leaked.
+     * @param borrowTimeoutMillis the time a caller waits for a free connection before failing.
+     * @throws SQLException if the initial connections can't be opened.
+     */
+    public ConnectionPool(String url, String user, String password, int minSize, int maxSize, long idleTimeoutMillis, long leakThresholdMillis, long borrowTimeoutMillis) throws SQLException {
+        if (minSize < 0 || maxSize < 1 || minSize > maxSize)
+            throw new IllegalArgumentException("Invalid pool size: min " + minSize + ", max " + maxSize);
+
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        for (int i = 0; i < minSize; i++)
+            idle.offerLast(new IdleConnection(openConnection()));
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleAtFixedRate(this::housekeeping, HOUSEKEEPING_PERIOD, HOUSEKEEPING_PERIOD, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool. Closing the returned connection gives it back to the pool.
+     *
+     * @return a validated connection.
+     * @throws SQLException if the pool is closed, exhausted for longer than the borrow timeout, or a new connection can't be opened.
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed)
+            throw new SQLException("Connection pool is closed!");
+
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS))
+                throw new SQLException("Timed out waiting for a database connection (max " + maxSize + ")!");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection!", e);
+        }
+
+        try {
+            Connection physical = takeValidConnection();
+            Connection proxy = wrap(physical);
+            leased.put(proxy, new Lease(physical));
+            return proxy;
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves the number of connections currently borrowed from the pool.
+     *
+     * @return the number of borrowed connections.
+     */
+    public int getActiveCount() {
+        return leased.size();
+    }
+
+    /**
+     * Retrieves the number of open connections waiting in the pool.
+     *
+     * @return the number of idle connections.
+     */
+    public int getIdleCount() {
+        return idle.size();
+    }
+
+    /**
+     * Closes all idle connections and stops the housekeeping thread.
+     * Connections that are still borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+
+        IdleConnection ic;
+        while ((ic = idle.pollFirst()) != null)
+            closeQuietly(ic.connection);
+    }
+
+    /**
+     * Takes the most recently used idle connection that passes validation, or opens a new one.
+     *
+     * @return an open, valid physical connection.
+     * @throws SQLException if a new connection can't be opened.
+     */
+    private Connection takeValidConnection() throws SQLException {
+        IdleConnection ic;
+        while ((ic = idle.pollFirst()) != null) {
+            if (isValid(ic.connection))
+                return ic.connection;
+            closeQuietly(ic.connection);
+        }
+        return openConnection();
+    }
+
+    /**
+     * Returns a physical connection to the pool after restoring its default state.
+     *
+     * @param proxy the connection handed out to the caller.
+     */
+    private void release(Connection proxy) {
+        Lease lease = leased.remove(proxy);
+        if (lease == null)
+            return;
+
+        Connection physical = lease.connection;
+        try {
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+
+            if (closed || physical.isClosed())
+                closeQuietly(physical);
+            else
+                idle.offerFirst(new IdleConnection(physical));
+        } catch (SQLException e) {
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes connections that stayed idle longer than the idle timeout while keeping the minimum size,
+     * and reports connections that have been borrowed for longer than the leak threshold.
+     */
+    private void housekeeping() {
+        long now = System.currentTimeMillis();
+
+        for (IdleConnection ic : idle)
+            if (idle.size() > minSize && now - ic.idleSince > idleTimeoutMillis && idle.remove(ic))
+                closeQuietly(ic.connection);
+
+        for (Lease lease : leased.values())
+            if (!lease.reported && now - lease.borrowedAt > leakThresholdMillis) {
+                lease.reported = true;
+                System.err.println("Possible connection leak: connection borrowed " + (now - lease.borrowedAt) + " ms ago at");
+                lease.origin.printStackTrace();
+            }
+    }
+
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    private boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(VALIDATION_TIMEOUT);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    /**
+     * Wraps a physical connection so that close() returns it to the pool instead of closing it.
+     *
+     * @param physical the physical connection.
+     * @return the proxy handed out to the caller.
+     */
+    private Connection wrap(Connection physical) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean returned;
+
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                switch (method.getName()) {
+                    case "close":
+                        if (!returned) {
+                            returned = true;
+                            release((Connection) proxy);
+                        }
+                        return null;
+                    case "isClosed":
+                        return returned || physical.isClosed();
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Pooled" + physical;
+                }
+
+                if (returned)
+                    throw new SQLException("Connection has already been returned to the pool!");
+
+                try {
+                    return method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+
+    /**
+     * An open connection waiting in the pool, together with the moment it was returned.
+     */
+    private static class IdleConnection {
+        private final Connection connection;
+        private final long idleSince;
+
+        private IdleConnection(Connection connection) {
+            this.connection = connection;
+            this.idleSince = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * A borrowed connection, the moment it was borrowed and the stack trace of the borrower.
+     */
+    private static class Lease {
+        private final Connection connection;
+        private final long borrowedAt;
+        private final Throwable origin;
+        private volatile boolean reported;
+
+        private Lease(Connection connection) {
+            this.connection = connection;
+            this.borrowedAt = System.currentTimeMillis();
+            this.origin = new Throwable("Connection borrowed here");
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package database;
 
+import implementation.general.Money;
 import interfaces.RowMapper;
 import models.entities.*;
 import models.enums.RoomType;
@@ -7,8 +8,13 @@ import models.enums.Transport;
 
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class Database {
     private static String DB_user = "root";
@@ -16,29 +22,46 @@ public class Database {
     private static String connectionUrl;
     private static int port = 3306;
     private static String DB_name = "agencija";
-    private static Connection connection;
-
-    public static void DBConnect() throws SQLException /*, ClassNotFoundException*/ {
+    private static int minPoolSize = 2;
+    private static int maxPoolSize = 10;
+    private static long idleTimeoutMillis = 10 * 60 * 1000;
+    private static long leakThresholdMillis = 60 * 1000;
+    private static long borrowTimeoutMillis = 30 * 1000;
+    private static ConnectionPool pool;
+
+    public static synchronized ConnectionPool getPool() throws SQLException /*, ClassNotFoundException*/ {
         //Class.forName("com.mysql.cj.jdbc.Driver");
-        connectionUrl = "jdbc:mysql://localhost" + ":" + port + "/" + DB_name;
-        connection = DriverManager.getConnection(connectionUrl, DB_user, DB_password);
+        if (pool == null) {
+            connectionUrl = "jdbc:mysql://localhost" + ":" + port + "/" + DB_name;
+            pool = new ConnectionPool(connectionUrl, DB_user, DB_password, minPoolSize, maxPoolSize, idleTimeoutMillis, leakThresholdMillis, borrowTimeoutMillis);
+        }
+        return pool;
     }
 
-    public static <T> List<T> getObjects(String tableName, RowMapper<T> rowMapper) throws SQLException {
-        DBConnect();
-        List<T> objects = new ArrayList<>();
+    public static Connection getConnection() throws SQLException {
+        return getPool().getConnection();
+    }
 
-        ResultSet resultSet = null;
-        Statement statement = connection.createStatement();
-        String SQLQuery = "SELECT * FROM " + tableName;
-        resultSet = statement.executeQuery(SQLQuery);
+    public static synchronized void closePool() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
 
-        while (resultSet.next())
-            objects.add(rowMapper.mapRow(resultSet));
+    public static <T> List<T> getObjects(String tableName, RowMapper<T> rowMapper) throws SQLException {
+        return query("SELECT * FROM " + tableName, rowMapper);
+    }
 
+    public static <T> List<T> query(String SQLQuery, RowMapper<T> rowMapper) throws SQLException {
+        List<T> objects = new ArrayList<>();
 
-        statement.close();
-        connection.close();
+        try (Connection connection = getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(SQLQuery)) {
+            while (resultSet.next())
+                objects.add(rowMapper.mapRow(resultSet));
+        }
 
         return objects;
     }
@@ -50,7 +73,7 @@ public class Database {
                         resultSet.getInt(1),
                         resultSet.getString(3),
                         resultSet.getString(2),
-                        resultSet.getDouble(4)
+                        Money.fromDecimal(resultSet.getBigDecimal(4))
                 )
         );
     }
@@ -94,200 +117,272 @@ public class Database {
     }
 
     public static List<Accommodation> getAccommodations() throws SQLException {
-        return getObjects("smjestaj", resultSet ->
-                new Accommodation(
-                        resultSet.getInt(1),
-                        Integer.parseInt(resultSet.getString(3)),
-                        resultSet.getString(2),
-                        RoomType.fromString(resultSet.getString(4)),
-                        Double.parseDouble(resultSet.getString(5))
-                )
+        return getObjects("smjestaj", resultSet -> mapAccommodation(resultSet, 1));
+    }
+
+    private static Accommodation mapAccommodation(ResultSet resultSet, int first) throws SQLException {
+        return new Accommodation(
+                resultSet.getInt(first),
+                Integer.parseInt(resultSet.getString(first + 2)),
+                resultSet.getString(first + 1),
+                RoomType.fromString(resultSet.getString(first + 3)),
+                Money.fromDecimal(resultSet.getBigDecimal(first + 4))
         );
     }
 
     public static List<Arrangement> getArrangements() throws SQLException {
-        return getObjects("aranzman", resultSet ->
-                new Arrangement(
-                        resultSet.getInt(1),
-                        resultSet.getString(2),
-                        resultSet.getString(3),
-                        Transport.fromString(resultSet.getString(4)),
-                        LocalDate.parse(resultSet.getString(5)),
-                        LocalDate.parse(resultSet.getString(6)),
-                        Double.parseDouble(resultSet.getString(7)),
-                        getAccommodationByID(resultSet.getInt(8))
-                        )
-        );
+        return getArrangements(new IdentityMap<>(0));
     }
+
+    public static List<Arrangement> getArrangements(IdentityMap<Accommodation> accommodations) throws SQLException {
+        String SQLQuery = "SELECT a.id, a.naziv_putovanja, a.destinacija, a.prevoz, a.datum_polaska, a.datum_dolaska, a.cijena_aranzmana, " +
+                "s.id, s.naziv, s.broj_zvjezdica, s.vrsta_sobe, s.cjena_po_nocenju " +
+                "FROM aranzman a LEFT JOIN smjestaj s ON s.id = a.Smjestaj_id";
+
+        return query(SQLQuery, resultSet -> {
+            Accommodation accommodation = null;
+            int accommodationID = resultSet.getInt(8);
+
+            if (!resultSet.wasNull()) {
+                accommodation = accommodations.get(accommodationID);
+                if (accommodation == null) {
+                    accommodation = mapAccommodation(resultSet, 8);
+                    accommodations.put(accommodationID, accommodation);
+                }
+            }
+
+            return new Arrangement(
+                    resultSet.getInt(1),
+                    resultSet.getString(2),
+                    resultSet.getString(3),
+                    Transport.fromString(resultSet.getString(4)),
+                    LocalDate.parse(resultSet.getString(5)),
+                    LocalDate.parse(resultSet.getString(6)),
+                    Money.fromDecimal(resultSet.getBigDecimal(7)),
+                    accommodation
+            );
+        });
+    }
+
     public static List<Reservation> getReservations() throws SQLException {
-        return getObjects("rezervacija", resultSet ->
-                new Reservation(
-                        getClientByID(resultSet.getInt(1)),
-                        getArrangementByID(Integer.parseInt(resultSet.getString(2))),
-                        null,
-                        Double.parseDouble(resultSet.getString(3)),
-                        Double.parseDouble(resultSet.getString(4))
-                )
+        return getReservations(
+                IdentityMap.of(getClients(), Client::getId),
+                IdentityMap.of(getArrangements(), Arrangement::getId)
         );
     }
 
-    public static BankAccount getAgencyBankAccount() throws SQLException {
-        return getBankAccounts()
-                .stream()
-                .filter(BankAccount::isAgencyBankAccount)
-                .findFirst()
-                .orElse(null);
+    public static List<Reservation> getReservations(IdentityMap<Client> clients, IdentityMap<Arrangement> arrangements) throws SQLException {
+        return resolveReservations(getReservationRows(), clients, arrangements);
     }
 
-    private static Accommodation getAccommodationByID(int id) throws SQLException {
-        return getAccommodations()
-                .stream()
-                .filter(a -> a.getId() == id)
-                .findFirst()
-                .orElse(null);
+    public static List<ReservationRow> getReservationRows() throws SQLException {
+        return query("SELECT Klijent_id, Aranzman_id, ukupna_cijena, placena_cijena FROM rezervacija", resultSet ->
+                new ReservationRow(
+                        resultSet.getInt(1),
+                        Integer.parseInt(resultSet.getString(2)),
+                        Money.fromDecimal(resultSet.getBigDecimal(3)),
+                        Money.fromDecimal(resultSet.getBigDecimal(4))
+                )
+        );
     }
 
-    private static Client getClientByID(int id) throws SQLException {
-        return getClients()
-                .stream()
-                .filter(c -> c.getId() == id)
-                .findFirst()
-                .orElse(null);
-    }
+    public static List<Reservation> resolveReservations(List<ReservationRow> rows, IdentityMap<Client> clients, IdentityMap<Arrangement> arrangements) {
+        List<Reservation> reservations = new ArrayList<>(rows.size());
 
-    private static Arrangement getArrangementByID(int id) throws SQLException {
-        return getArrangements()
-                .stream()
-                .filter(a -> a.getId() == id)
-                .findFirst()
-                .orElse(null);
+        for (ReservationRow row : rows)
+            reservations.add(new Reservation(
+                    clients.get(row.getClientID()),
+                    arrangements.get(row.getArrangementID()),
+                    row.getTotalPrice(),
+                    row.getPaidAmount()
+            ));
+
+        return reservations;
     }
 
     public static void changePassword(int id, String newPassword, String table) throws SQLException {
-        DBConnect();
         String SQLUpdate = "UPDATE " + table + " SET lozinka=? where id=?";
 
-        PreparedStatement preparedStatement = connection.prepareStatement(SQLUpdate);
-        preparedStatement.setString(1, newPassword);
-        preparedStatement.setInt(2, id);
+        try (Connection connection = getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(SQLUpdate)) {
+            preparedStatement.setString(1, newPassword);
+            preparedStatement.setInt(2, id);
 
-        preparedStatement.executeUpdate();
-        connection.close();
+            preparedStatement.executeUpdate();
+        }
     }
 
-    public static void updateBalance(int id, double newBalance) throws SQLException {
-        DBConnect();
+    public static Map<Integer, Long> lockBalances(Connection connection, Collection<Integer> ids) throws SQLException {
+        Map<Integer, Long> balances = new HashMap<>();
+        if (ids.isEmpty())
+            return balances;
+
+        String SQLQuery = "SELECT id, stanje FROM bankovni_racun WHERE id IN (" + String.join(", ", Collections.nCopies(ids.size(), "?")) + ") ORDER BY id FOR UPDATE";
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(SQLQuery)) {
+            int i = 1;
+            for (int id : ids)
+                preparedStatement.setInt(i++, id);
+
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                while (resultSet.next())
+                    balances.put(resultSet.getInt(1), Money.fromDecimal(resultSet.getBigDecimal(2)));
+            }
+        }
+
+        return balances;
+    }
+
+    public static void setBalances(Connection connection, Map<Integer, Long> balances) throws SQLException {
+        if (balances.isEmpty())
+            return;
+
         String SQLUpdate = "UPDATE bankovni_racun SET stanje=? where id=?";
 
-        PreparedStatement preparedStatement = connection.prepareStatement(SQLUpdate);
-        preparedStatement.setDouble(1, newBalance);
-        preparedStatement.setInt(2, id);
+        try (PreparedStatement preparedStatement = connection.prepareStatement(SQLUpdate)) {
+            for (Map.Entry<Integer, Long> balance : balances.entrySet()) {
+                preparedStatement.setBigDecimal(1, Money.toDecimal(balance.getValue()));
+                preparedStatement.setInt(2, balance.getKey());
+                preparedStatement.addBatch();
+            }
 
-        preparedStatement.executeUpdate();
-        connection.close();
+            preparedStatement.executeBatch();
+        }
     }
 
-    public static void updateReservationPaidAmount(int id, int arrID, double price) throws SQLException {
-        DBConnect();
-        String SQLUpdate = "UPDATE rezervacija SET placena_cijena=? where Klijent_id=? AND Aranzman_id=?";
+    public static void appendLedgerEntries(Connection connection, List<LedgerEntry> entries, LocalDateTime time) throws SQLException {
+        if (entries.isEmpty())
+            return;
 
-        PreparedStatement preparedStatement = connection.prepareStatement(SQLUpdate);
-        preparedStatement.setString(1, price + "");
-        preparedStatement.setInt(2, id);
-        preparedStatement.setInt(3, arrID);
+        String SQLQuery = "INSERT INTO knjizenje (racun_duguje, racun_potrazuje, iznos, vrsta, vrijeme) VALUES (?, ?, ?, ?, ?)";
 
-        preparedStatement.executeUpdate();
-        connection.close();
+        try (PreparedStatement preparedStatement = connection.prepareStatement(SQLQuery)) {
+            for (LedgerEntry entry : entries) {
+                preparedStatement.setInt(1, entry.getDebitAccountID());
+                preparedStatement.setInt(2, entry.getCreditAccountID());
+                preparedStatement.setBigDecimal(3, Money.toDecimal(entry.getAmount()));
+                preparedStatement.setString(4, entry.getType().toString());
+                preparedStatement.setTimestamp(5, Timestamp.valueOf(time));
+                preparedStatement.addBatch();
+            }
+
+            preparedStatement.executeBatch();
+        }
+    }
+
+    public static boolean updateReservationPaidAmount(Connection connection, int id, int arrID, long expectedPrice, long price) throws SQLException {
+        String SQLUpdate = "UPDATE rezervacija SET placena_cijena=? where Klijent_id=? AND Aranzman_id=? AND placena_cijena=?";
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(SQLUpdate)) {
+            preparedStatement.setBigDecimal(1, Money.toDecimal(price));
+            preparedStatement.setInt(2, id);
+            preparedStatement.setInt(3, arrID);
+            preparedStatement.setBigDecimal(4, Money.toDecimal(expectedPrice));
+
+            return preparedStatement.executeUpdate() == 1;
+        }
     }
 
     public static void registerClient(int id, String firstName, String lastName, String phoneNumber, String jmbg, String bankAccNumber, String username, String password) throws SQLException {
-        DBConnect();
         String SQLQuery = "INSERT INTO klijent (id, ime, prezime, broj_telefona, jmbg, broj_racuna, korisnicko_ime, lozinka) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
-        PreparedStatement preparedStatement = connection.prepareStatement(SQLQuery);
-        preparedStatement.setInt(1, id);
-        preparedStatement.setString(2, firstName);
-        preparedStatement.setString(3, lastName);
-        preparedStatement.setString(4, phoneNumber);
-        preparedStatement.setString(5, jmbg);
-        preparedStatement.setString(6, bankAccNumber);
-        preparedStatement.setString(7, username);
-        preparedStatement.setString(8, password);
-
-        preparedStatement.executeUpdate();
-        connection.close();
+        try (Connection connection = getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(SQLQuery)) {
+            preparedStatement.setInt(1, id);
+            preparedStatement.setString(2, firstName);
+            preparedStatement.setString(3, lastName);
+            preparedStatement.setString(4, phoneNumber);
+            preparedStatement.setString(5, jmbg);
+            preparedStatement.setString(6, bankAccNumber);
+            preparedStatement.setString(7, username);
+            preparedStatement.setString(8, password);
+
+            preparedStatement.executeUpdate();
+        }
     }
 
     public static void registerAdmin(int id, String firstName, String lastName, String username, String password) throws SQLException {
-        DBConnect();
         String SQLQuery = "INSERT INTO admin (id, ime, prezime, korisnicko_ime, lozinka) VALUES (?, ?, ?, ?, ?)";
 
-        PreparedStatement preparedStatement = connection.prepareStatement(SQLQuery);
-        preparedStatement.setInt(1, id);
-        preparedStatement.setString(2, firstName);
-        preparedStatement.setString(3, lastName);
-        preparedStatement.setString(4, username);
-        preparedStatement.setString(5, password);
+        try (Connection connection = getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(SQLQuery)) {
+            preparedStatement.setInt(1, id);
+            preparedStatement.setString(2, firstName);
+            preparedStatement.setString(3, lastName);
+            preparedStatement.setString(4, username);
+            preparedStatement.setString(5, password);
 
-        preparedStatement.executeUpdate();
-        connection.close();
+            preparedStatement.executeUpdate();
+        }
     }
 
-    public static void addAccommodation(int id, String name, int starReview, String roomType, double pricePerNight) throws SQLException {
-        DBConnect();
+    public static void addAccommodation(int id, String name, int starReview, String roomType, long pricePerNight) throws SQLException {
         String SQLQuery = "INSERT INTO smjestaj (id, naziv, broj_zvjezdica, vrsta_sobe, cjena_po_nocenju) VALUES (?, ?, ?, ?, ?)";
 
-        PreparedStatement preparedStatement = connection.prepareStatement(SQLQuery);
-        preparedStatement.setInt(1, id);
-        preparedStatement.setString(2, name);
-        preparedStatement.setString(3, starReview + "");
-        preparedStatement.setString(4, roomType);
-        preparedStatement.setString(5, pricePerNight + "");
+        try (Connection connection = getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(SQLQuery)) {
+            preparedStatement.setInt(1, id);
+            preparedStatement.setString(2, name);
+            preparedStatement.setString(3, starReview + "");
+            preparedStatement.setString(4, roomType);
+            preparedStatement.setBigDecimal(5, Money.toDecimal(pricePerNight));
 
-        preparedStatement.executeUpdate();
-        connection.close();
+            preparedStatement.executeUpdate();
+        }
     }
 
-    public static void addArrangement(int id, String name, String destination, String transport, LocalDate tripDate, LocalDate arrivalDate, double price, Integer accommodationID) throws SQLException{
-        DBConnect();
+    public static void addArrangement(int id, String name, String destination, String transport, LocalDate tripDate, LocalDate arrivalDate, long price, Integer accommodationID) throws SQLException{
         String SQLQuery = "INSERT INTO aranzman (id, naziv_putovanja, destinacija, prevoz, datum_polaska, datum_dolaska, cijena_aranzmana, Smjestaj_id)" +
                 " VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
 
-        PreparedStatement preparedStatement = connection.prepareStatement(SQLQuery);
-        preparedStatement.setInt(1, id);
-        preparedStatement.setString(2, name);
-        preparedStatement.setString(3, destination);
-        preparedStatement.setString(4, transport);
-        preparedStatement.setDate(5, Date.valueOf(tripDate));
-        preparedStatement.setDate(6, Date.valueOf(arrivalDate));
-        preparedStatement.setString(7, price + "");
-        preparedStatement.setObject(8, accommodationID);
-
-        preparedStatement.executeUpdate();
-        connection.close();
+        try (Connection connection = getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(SQLQuery)) {
+            preparedStatement.setInt(1, id);
+            preparedStatement.setString(2, name);
+            preparedStatement.setString(3, destination);
+            preparedStatement.setString(4, transport);
+            preparedStatement.setDate(5, Date.valueOf(tripDate));
+            preparedStatement.setDate(6, Date.valueOf(arrivalDate));
+            preparedStatement.setBigDecimal(7, Money.toDecimal(price));
+            preparedStatement.setObject(8, accommodationID);
+
+            preparedStatement.executeUpdate();
+        }
     }
 
-    public static void addReservation(int clientID, int arrangementID, double totalPrice, double paidAmount) throws SQLException {
-        DBConnect();
+    public static void addReservation(Connection connection, int clientID, int arrangementID, long totalPrice, long paidAmount) throws SQLException {
         String SQLQuery = "INSERT INTO rezervacija (Klijent_id, Aranzman_id, ukupna_cijena, placena_cijena) VALUES (?, ?, ?, ?)";
 
-        PreparedStatement preparedStatement = connection.prepareStatement(SQLQuery);
-        preparedStatement.setInt(1, clientID);
-        preparedStatement.setString(2, "" + arrangementID);
-        preparedStatement.setString(3, "" + totalPrice);
-        preparedStatement.setString(4, "" + paidAmount);
+        try (PreparedStatement preparedStatement = connection.prepareStatement(SQLQuery)) {
+            preparedStatement.setInt(1, clientID);
+            preparedStatement.setString(2, "" + arrangementID);
+            preparedStatement.setBigDecimal(3, Money.toDecimal(totalPrice));
+            preparedStatement.setBigDecimal(4, Money.toDecimal(paidAmount));
 
-        preparedStatement.executeUpdate();
-        connection.close();
+            preparedStatement.executeUpdate();
+        }
+    }
+
+    public static boolean deleteReservation(Connection connection, int clientID, int arrangementID, long expectedPaidAmount) throws SQLException {
+        String SQLDelete = "DELETE FROM rezervacija WHERE Klijent_id=? AND Aranzman_id=? AND placena_cijena=?";
+
+        try (PreparedStatement preparedStatement = connection.prepareStatement(SQLDelete)) {
+            preparedStatement.setInt(1, clientID);
+            preparedStatement.setInt(2, arrangementID);
+            preparedStatement.setBigDecimal(3, Money.toDecimal(expectedPaidAmount));
+
+            return preparedStatement.executeUpdate() == 1;
+        }
     }
 
     public static void deleteObject(int id, String table, String where) throws SQLException {
-        DBConnect();
         String SQLQuery = "DELETE FROM " + table + " WHERE " + where + " = ?";
-        PreparedStatement preparedStatement = connection.prepareStatement(SQLQuery);
-        preparedStatement.setInt(1, id);
 
-        preparedStatement.executeUpdate();
-        connection.close();
+        try (Connection connection = getConnection();
+             PreparedStatement preparedStatement = connection.prepareStatement(SQLQuery)) {
+            preparedStatement.setInt(1, id);
+
+            preparedStatement.executeUpdate();
+        }
     }
 }
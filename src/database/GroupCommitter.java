@@ -0,0 +1,164 @@
+package database;
+
+import implementation.general.AgencyClock;
+import interfaces.SQLWrite;
+import models.enums.LedgerEntryType;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * The GroupCommitter class commits the units of work of all threads on a single background thread.
+ * While one batch is being committed, newly submitted units of work queue up, and the next batch takes all of them,
+ * so the number of commits grows with the number of batches rather than the number of units of work.
+ * Each unit of work runs under its own savepoint, so a failing one is rolled back alone and the rest of the batch still commits.
+ * Ledger entries of a batch are appended with one batched insert, and the balances of the accounts they touch,
+ * which are materialized running totals of the ledger, are locked once and written once per batch.
+ */
+public class GroupCommitter {
+    private final BlockingQueue<UnitOfWork> queue = new LinkedBlockingQueue<>();
+
+    private static GroupCommitter instance;
+
+    /** Maximum number of units of work committed in one transaction. */
+    private final static int MAX_BATCH_SIZE = 256;
+
+    private GroupCommitter() {
+    }
+
+    /**
+     * Retrieves the group committer shared by the application, starting its thread on first use.
+     *
+     * @return the shared group committer.
+     */
+    public static synchronized GroupCommitter getInstance() {
+        if (instance == null) {
+            instance = new GroupCommitter();
+
+            Thread thread = new Thread(instance::run, "group-commit");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return instance;
+    }
+
+    void submit(UnitOfWork work) {
+        queue.add(work);
+    }
+
+    private void run() {
+        List<UnitOfWork> batch = new ArrayList<>(MAX_BATCH_SIZE);
+
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+
+            try {
+                commitBatch(batch);
+            } catch (SQLException e) {
+                for (UnitOfWork work : batch)
+                    work.failed(e);
+            } catch (RuntimeException e) {
+                for (UnitOfWork work : batch)
+                    work.failed(new SQLException(e));
+            }
+
+            batch.clear();
+        }
+    }
+
+    private static void commitBatch(List<UnitOfWork> batch) throws SQLException {
+        List<UnitOfWork> committed = new ArrayList<>(batch.size());
+        List<LedgerEntry> entries = new ArrayList<>();
+        Map<Integer, Long> changed = new HashMap<>();
+
+        try (Connection connection = Database.getConnection()) {
+            connection.setAutoCommit(false);
+
+            try {
+                Map<Integer, Long> balances = Database.lockBalances(connection, accountIDs(batch));
+
+                for (UnitOfWork work : batch) {
+                    Savepoint savepoint = connection.setSavepoint();
+
+                    try {
+                        Map<Integer, Long> posted = post(work.getEntries(), balances);
+                        for (SQLWrite write : work.getWrites())
+                            write.write(connection);
+
+                        balances.putAll(posted);
+                        changed.putAll(posted);
+                        entries.addAll(work.getEntries());
+                        committed.add(work);
+                    } catch (SQLException e) {
+                        connection.rollback(savepoint);
+                        work.failed(e);
+                    } catch (RuntimeException e) {
+                        connection.rollback(savepoint);
+                        work.failed(new SQLException(e));
+                    }
+                }
+
+                Database.appendLedgerEntries(connection, entries, LocalDateTime.now(AgencyClock.get()));
+                Database.setBalances(connection, changed);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+
+        for (UnitOfWork work : committed)
+            work.committed();
+    }
+
+    /**
+     * Calculates the balances of the accounts touched by ledger entries after posting them, checking that no client
+     * pays more than their balance. Refunds and cancellations are paid by the agency, whose balance isn't checked. The balances passed in are left unchanged, so the entries can be discarded if they fail.
+     */
+    private static Map<Integer, Long> post(List<LedgerEntry> entries, Map<Integer, Long> balances) throws SQLException {
+        Map<Integer, Long> posted = new HashMap<>();
+
+        for (LedgerEntry entry : entries) {
+            long debitBalance = balance(entry.getDebitAccountID(), posted, balances);
+            if (entry.getType() == LedgerEntryType.PAYMENT && debitBalance < entry.getAmount())
+                throw new SQLException("Insufficient balance on bank account " + entry.getDebitAccountID() + "!");
+
+            posted.put(entry.getDebitAccountID(), debitBalance - entry.getAmount());
+            posted.put(entry.getCreditAccountID(), balance(entry.getCreditAccountID(), posted, balances) + entry.getAmount());
+        }
+
+        return posted;
+    }
+
+    private static long balance(int accountID, Map<Integer, Long> posted, Map<Integer, Long> balances) throws SQLException {
+        Long balance = posted.containsKey(accountID) ? posted.get(accountID) : balances.get(accountID);
+        if (balance == null)
+            throw new SQLException("Bank account " + accountID + " doesn't exist!");
+        return balance;
+    }
+
+    private static Set<Integer> accountIDs(List<UnitOfWork> batch) {
+        Set<Integer> ids = new TreeSet<>();
+        for (UnitOfWork work : batch)
+            for (LedgerEntry entry : work.getEntries()) {
+                ids.add(entry.getDebitAccountID());
+                ids.add(entry.getCreditAccountID());
+            }
+        return ids;
+    }
+}
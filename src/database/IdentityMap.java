@@ -0,0 +1,114 @@
+package database;
+
+import java.util.Collection;
+import java.util.function.ToIntFunction;
+
+/**
+ * The IdentityMap class maps primitive int IDs to already loaded objects, so that rows referencing
+ * the same ID resolve to the same instance. Keys are stored in a primitive array with open addressing,
+ * which avoids boxing every ID during lookups.
+ *
+ * @param <V> the type of the mapped objects.
+ */
+public class IdentityMap<V> {
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    /**
+     * Constructs an empty identity map sized for the expected number of entries.
+     *
+     * @param expectedSize the expected number of entries.
+     */
+    public IdentityMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    /**
+     * Creates an identity map containing the given objects keyed by the given ID function.
+     *
+     * @param objects the objects to map.
+     * @param id      the function that extracts the ID of an object.
+     * @param <V>     the type of the objects.
+     * @return the identity map of the objects.
+     */
+    public static <V> IdentityMap<V> of(Collection<? extends V> objects, ToIntFunction<? super V> id) {
+        IdentityMap<V> map = new IdentityMap<>(objects.size());
+        for (V object : objects)
+            map.put(id.applyAsInt(object), object);
+        return map;
+    }
+
+    /**
+     * Retrieves the object mapped to the given ID.
+     *
+     * @param key the ID.
+     * @return the mapped object, or null if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int mask = keys.length - 1;
+        for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask)
+            if (keys[i] == key)
+                return (V) values[i];
+        return null;
+    }
+
+    /**
+     * Maps the given ID to the given object, replacing any previous mapping.
+     *
+     * @param key   the ID.
+     * @param value the object, must not be null.
+     */
+    public void put(int key, V value) {
+        if (value == null)
+            throw new IllegalArgumentException("Identity map values can't be null!");
+
+        if ((size + 1) * 2 > keys.length)
+            resize();
+
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while (values[i] != null) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    /**
+     * Retrieves the number of mapped IDs.
+     *
+     * @return the number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        keys = new int[oldKeys.length * 2];
+        values = new Object[oldValues.length * 2];
+        size = 0;
+
+        for (int i = 0; i < oldKeys.length; i++)
+            if (oldValues[i] != null)
+                put(oldKeys[i], (V) oldValues[i]);
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,66 @@
+package database;
+
+import models.enums.LedgerEntryType;
+
+/**
+ * The LedgerEntry class holds one movement of money between two bank accounts, as it is appended to the ledger.
+ * Every entry debits the paying account and credits the receiving account by the same amount, so the entries
+ * of the ledger always balance, and the balance of an account is the sum of its credits minus its debits.
+ */
+public class LedgerEntry {
+    private final int debitAccountID;
+    private final int creditAccountID;
+    private final long amount;
+    private final LedgerEntryType type;
+
+    /**
+     * Constructs a LedgerEntry object.
+     *
+     * @param debitAccountID  the ID of the paying bank account.
+     * @param creditAccountID the ID of the receiving bank account.
+     * @param amount          the amount moved, in cents.
+     * @param type            the kind of movement.
+     */
+    public LedgerEntry(int debitAccountID, int creditAccountID, long amount, LedgerEntryType type) {
+        this.debitAccountID = debitAccountID;
+        this.creditAccountID = creditAccountID;
+        this.amount = amount;
+        this.type = type;
+    }
+
+    /**
+     * Retrieves the ID of the paying bank account.
+     *
+     * @return the debited account ID.
+     */
+    public int getDebitAccountID() {
+        return debitAccountID;
+    }
+
+    /**
+     * Retrieves the ID of the receiving bank account.
+     *
+     * @return the credited account ID.
+     */
+    public int getCreditAccountID() {
+        return creditAccountID;
+    }
+
+    /**
+     * Retrieves the amount moved.
+     *
+     * @return the amount, in cents.
+     */
+    public long getAmount() {
+        return amount;
+    }
+
+    /**
+     * Retrieves the kind of movement.
+     *
+     * @return the entry type.
+     */
+    public LedgerEntryType getType() {
+        return type;
+    }
+}
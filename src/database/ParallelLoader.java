@@ -0,0 +1,100 @@
+package database;
+
+import interfaces.SQLSupplier;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * The ParallelLoader class runs independent database loads at the same time, each on its own pooled
+ * connection, and records how long every load took. Since the loads mostly wait on the database,
+ * the total time is bounded by the slowest load instead of the sum of all of them.
+ */
+public class ParallelLoader implements AutoCloseable {
+    private final ExecutorService executor;
+    private final Map<String, Long> timings = Collections.synchronizedMap(new LinkedHashMap<>());
+    private final long start = System.nanoTime();
+
+    /**
+     * Constructs a loader able to run the given number of loads at the same time.
+     *
+     * @param parallelism the number of loads run at the same time.
+     */
+    public ParallelLoader(int parallelism) {
+        executor = Executors.newFixedThreadPool(parallelism, r -> {
+            Thread thread = new Thread(r, "agency-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a load in the background.
+     *
+     * @param phase  the name under which the duration of the load is recorded.
+     * @param loader the load to run.
+     * @param <T>    the type of the loaded data.
+     * @return the future result of the load.
+     */
+    public <T> Future<T> submit(String phase, SQLSupplier<T> loader) {
+        return executor.submit(() -> {
+            long phaseStart = System.nanoTime();
+            try {
+                return loader.get();
+            } finally {
+                timings.put(phase, (System.nanoTime() - phaseStart) / 1_000_000);
+            }
+        });
+    }
+
+    /**
+     * Waits for a load to finish and retrieves its result.
+     *
+     * @param future the future returned by submit().
+     * @param <T>    the type of the loaded data.
+     * @return the loaded data.
+     * @throws SQLException if the load failed with a database error.
+     */
+    public static <T> T await(Future<T> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while loading data!", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException)
+                throw (SQLException) e.getCause();
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new SQLException(e.getCause());
+        }
+    }
+
+    /**
+     * Retrieves the duration of every finished load in milliseconds, together with the total time elapsed so far.
+     *
+     * @return the durations keyed by phase name.
+     */
+    public Map<String, Long> getTimings() {
+        Map<String, Long> result;
+        synchronized (timings) {
+            result = new LinkedHashMap<>(timings);
+        }
+        result.put("total", (System.nanoTime() - start) / 1_000_000);
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Stops the loader threads. Loads that are still running are interrupted.
+     */
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,64 @@
+package database;
+
+/**
+ * The ReservationRow class holds a reservation exactly as it is stored in the database, with the client
+ * and arrangement still referenced by ID. It lets reservations be loaded before the clients and
+ * arrangements they reference are available.
+ */
+public class ReservationRow {
+    private final int clientID;
+    private final int arrangementID;
+    private final long totalPrice;
+    private final long paidAmount;
+
+    /**
+     * Constructs a ReservationRow object.
+     *
+     * @param clientID      the ID of the client making the reservation.
+     * @param arrangementID the ID of the reserved arrangement.
+     * @param totalPrice    the total price of the reservation, in cents.
+     * @param paidAmount    the amount already paid for the reservation, in cents.
+     */
+    public ReservationRow(int clientID, int arrangementID, long totalPrice, long paidAmount) {
+        this.clientID = clientID;
+        this.arrangementID = arrangementID;
+        this.totalPrice = totalPrice;
+        this.paidAmount = paidAmount;
+    }
+
+    /**
+     * Retrieves the ID of the client making the reservation.
+     *
+     * @return the client ID.
+     */
+    public int getClientID() {
+        return clientID;
+    }
+
+    /**
+     * Retrieves the ID of the reserved arrangement.
+     *
+     * @return the arrangement ID.
+     */
+    public int getArrangementID() {
+        return arrangementID;
+    }
+
+    /**
+     * Retrieves the total price of the reservation.
+     *
+     * @return the total price.
+     */
+    public long getTotalPrice() {
+        return totalPrice;
+    }
+
+    /**
+     * Retrieves the amount already paid for the reservation.
+     *
+     * @return the paid amount.
+     */
+    public long getPaidAmount() {
+        return paidAmount;
+    }
+}
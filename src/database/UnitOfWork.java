@@ -0,0 +1,140 @@
+package database;
+
+import interfaces.SQLWrite;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The UnitOfWork class groups several database writes and ledger entries into one atomic change.
+ * Writes are collected rather than executed right away, and on commit the unit of work is handed to the
+ * group committer, which commits it together with the units of work of other threads in a single transaction.
+ * Changes to objects in memory are registered with afterCommit() and applied only once the
+ * unit of work is committed, so memory never reflects writes that were rolled back.
+ */
+public class UnitOfWork implements AutoCloseable {
+    private final List<SQLWrite> writes = new ArrayList<>();
+    private final List<LedgerEntry> entries = new ArrayList<>();
+    private final List<Runnable> afterCommit = new ArrayList<>();
+    private final CompletableFuture<Void> outcome = new CompletableFuture<>();
+    private boolean submitted;
+
+    /** Longest time to wait for a submitted unit of work to be committed, in seconds. */
+    private final static long COMMIT_TIMEOUT = 30;
+
+    /**
+     * Registers a write that is executed when the unit of work is committed.
+     *
+     * @param write the write to execute on the transaction connection.
+     */
+    public void write(SQLWrite write) {
+        writes.add(write);
+    }
+
+    /**
+     * Registers a movement of money that is appended to the ledger when the unit of work is committed.
+     * The unit of work fails if a paying client doesn't have enough money at that point.
+     *
+     * @param entry the ledger entry.
+     */
+    public void post(LedgerEntry entry) {
+        entries.add(entry);
+    }
+
+    /**
+     * Registers a change to objects in memory that is applied after a successful commit.
+     *
+     * @param action the change to apply.
+     */
+    public void afterCommit(Runnable action) {
+        afterCommit.add(action);
+    }
+
+    List<SQLWrite> getWrites() {
+        return writes;
+    }
+
+    List<LedgerEntry> getEntries() {
+        return entries;
+    }
+
+    void committed() {
+        outcome.complete(null);
+    }
+
+    void failed(SQLException e) {
+        outcome.completeExceptionally(e);
+    }
+
+    /**
+     * Commits all writes and ledger entries as part of the next group commit, waits for it to finish
+     * and applies the registered changes in memory.
+     *
+     * @throws SQLException if a write fails, a paying client has insufficient balance, the commit fails or doesn't finish in time.
+     *                      Unless it timed out, nothing is written and nothing is applied in memory.
+     */
+    public void commit() throws SQLException {
+        submit();
+        await();
+    }
+
+    /**
+     * Hands the unit of work to the group committer without waiting for it to be committed,
+     * so several units of work submitted one after another can be committed in the same batch.
+     */
+    public void submit() {
+        if (submitted)
+            throw new IllegalStateException("Unit of work is already committed!");
+        submitted = true;
+
+        if (writes.isEmpty() && entries.isEmpty())
+            committed();
+        else
+            GroupCommitter.getInstance().submit(this);
+    }
+
+    /**
+     * Waits for a submitted unit of work to be committed and applies the registered changes in memory.
+     *
+     * @throws SQLException if a write fails, a paying client has insufficient balance, the commit fails or doesn't finish in time.
+     *                      Unless it timed out, nothing is written and nothing is applied in memory. A unit of work that timed out
+     *                      may still be committed later without its changes being applied in memory.
+     */
+    public void await() throws SQLException {
+        if (!submitted)
+            throw new IllegalStateException("Unit of work isn't submitted!");
+
+        try {
+            outcome.get(COMMIT_TIMEOUT, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof SQLException cause)
+                throw cause;
+            throw new SQLException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new SQLException("Commit didn't finish in " + COMMIT_TIMEOUT + " seconds!", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for commit!", e);
+        }
+
+        for (Runnable action : afterCommit)
+            action.run();
+    }
+
+    /**
+     * Discards the unit of work if it wasn't committed.
+     */
+    @Override
+    public void close() {
+        if (!submitted) {
+            writes.clear();
+            entries.clear();
+            afterCommit.clear();
+        }
+    }
+}
@@ -2,7 +2,7 @@ package implementation.admin;
 
 import database.Database;
 import models.entities.Admin;
-import models.entities.User;
+import models.indexes.UserDirectory;
 
 import java.sql.SQLException;
 import java.util.List;
@@ -14,36 +14,33 @@ public class AdminViewer {
     public final static String SUCCESSFUL_ADMIN_REGISTRATION = "Admin successfully added!";
 
     /**
-     * Counts the number of administrators in the given list of users.
+     * Counts the number of administrators in the given user directory.
      *
-     * @param users The list of users to count administrators from.
-     * @return The number of administrators in the list of users.
+     * @param users The user directory to count administrators from.
+     * @return The number of administrators in the user directory.
      */
-    public static int adminCounter(List<User> users) {
-        return (int) users
-                .stream()
-                .filter(user -> user instanceof Admin)
-                .count();
+    public static int adminCounter(UserDirectory users) {
+        return users.adminCount();
     }
 
     /**
      * Generates the next available ID for an admin based on the number of admins currently in the system.
      *
-     * @param users The list of users to generate the next admin ID from.
+     * @param users The user directory to generate the next admin ID from.
      * @return The next available ID for an admin.
      */
-    public static int nextAdminID(List<User> users) {
+    public static int nextAdminID(UserDirectory users) {
         return adminCounter(users) + 1;
     }
 
     /**
-     * Adds a new admin to the list of users and registers the admin in the database.
+     * Adds a new admin to the user directory and registers the admin in the database.
      *
-     * @param users The list of users to which the admin will be added.
-     * @param admin The admin to add to the list of users and register in the database.
+     * @param users The user directory to which the admin will be added.
+     * @param admin The admin to add to the user directory and register in the database.
      * @throws SQLException If an error occurs while registering the admin in the database.
      */
-    public static void addAdmin(List<User> users, Admin admin) throws SQLException {
+    public static void addAdmin(UserDirectory users, Admin admin) throws SQLException {
         users.add(admin);
         Database.registerAdmin(
                 admin.getId(),
@@ -55,16 +52,12 @@ public class AdminViewer {
     }
 
     /**
-     * Retrieves a list of admins from the list of users.
+     * Retrieves a list of admins from the user directory.
      *
-     * @param users The list of users to retrieve admins from.
-     * @return A list of admins extracted from the given list of users.
+     * @param users The user directory to retrieve admins from.
+     * @return A list of admins in the given user directory.
      */
-    public static List<Admin> getAdmins(List<User> users) {
-        return users
-                .stream()
-                .filter(user -> user instanceof Admin)
-                .map(user -> (Admin) user)
-                .toList();
+    public static List<Admin> getAdmins(UserDirectory users) {
+        return users.getAdmins();
     }
 }
@@ -1,16 +1,22 @@
 package implementation.admin;
 
 import database.Database;
+import database.UnitOfWork;
 import implementation.general.TransactionManager;
 import interfaces.Identifiable;
 import models.entities.Accommodation;
 import models.entities.Arrangement;
 import models.entities.Reservation;
 import models.entities.BankAccount;
+import models.indexes.ArrangementIndex;
+import models.indexes.BankAccountIndex;
+import models.indexes.ReservationIndex;
 
 import java.sql.SQLException;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * The ArrangementManager class provides utility methods for managing arrangements,
@@ -53,13 +59,13 @@ public class ArrangementManager {
     }
 
     /**
-     * Finds the next available ID for an arrangement in the given list.
+     * Finds the next available ID for an arrangement in the given index.
      *
-     * @param arrangements The list of arrangements to search through.
+     * @param arrangements The arrangement index to search through.
      * @return The next available ID for an arrangement.
      */
-    public static int nextArrangementID(List<Arrangement> arrangements) {
-        return findID(arrangements);
+    public static int nextArrangementID(ArrangementIndex arrangements) {
+        return findID(arrangements.getAll());
     }
 
     /**
@@ -81,13 +87,13 @@ public class ArrangementManager {
     }
 
     /**
-     * Adds an arrangement to the list of arrangements and the database.
+     * Adds an arrangement to the arrangement index and the database.
      *
-     * @param arrangements The list of arrangements to add to.
+     * @param arrangements The arrangement index to add to.
      * @param arr The arrangement to add.
      * @throws SQLException if an SQL exception occurs.
      */
-    public static void addArrangement(List<Arrangement> arrangements, Arrangement arr) throws SQLException {
+    public static void addArrangement(ArrangementIndex arrangements, Arrangement arr) throws SQLException {
         arrangements.add(arr);
         Database.addArrangement(
                 arr.getId(),
@@ -104,60 +110,74 @@ public class ArrangementManager {
     /**
      * Calculates the total amount of money lost by the agency due to admin canceling reservations for a specific arrangement.
      *
-     * @param reservations The list of reservations to calculate from.
+     * @param reservations The reservation index to calculate from.
      * @param arr The arrangement which is canceled.
      * @return The total amount of money lost by the agency.
      */
-    public static double agencyMoneyLost(List<Reservation> reservations, Arrangement arr) {
-        return reservations
-                .stream()
-                .filter(res -> res.isRefundable(arr))
-                .mapToDouble(Reservation::getPaidAmount)
-                .sum();
+    public static long agencyMoneyLost(ReservationIndex reservations, Arrangement arr) {
+        return reservations.getPaidIn(arr);
     }
 
     /**
      * Returns money to clients for refundable reservations related to a specific arrangement.
+     * All refunds are settled as a single batch in one database transaction, so either every client is refunded or none is.
+     * The refunded reservations are deleted in the same transaction, provided their paid amounts are still the ones in memory,
+     * so a reservation can't be refunded twice even if removing the arrangement fails afterwards.
      *
-     * @param accounts The list of bank accounts.
-     * @param reservations The list of reservations.
+     * @param accounts The bank account index.
+     * @param reservations The reservation index.
      * @param arr The arrangement which is canceled.
      * @param agencyBank The agency's bank account.
-     * @throws SQLException if an SQL exception occurs.
+     * @return The number of refunded reservations.
+     * @throws SQLException if an SQL exception occurs, a client has no bank account or a reservation was changed in the meantime,
+     *                      in which case no client is refunded.
      */
-    public static void returnMoneyToClients(List<BankAccount> accounts, List<Reservation> reservations, Arrangement arr, BankAccount agencyBank) throws SQLException {
-        for (Reservation res : reservations)
-            if (res.isRefundable(arr))
-                TransactionManager.performTransaction(
-                        TransactionManager.getBankAccount(accounts, res.getClient().getBankAccountNumber()),
-                        agencyBank,
-                        res.getPaidAmount(),
-                        true
-                );
+    public static int returnMoneyToClients(BankAccountIndex accounts, ReservationIndex reservations, Arrangement arr, BankAccount agencyBank) throws SQLException {
+        List<Reservation> refunded = new ArrayList<>();
+        Map<BankAccount, Long> refunds = new LinkedHashMap<>();
+
+        try (UnitOfWork work = new UnitOfWork()) {
+            for (Reservation res : reservations.getByArrangement(arr))
+                if (res.isRefundable(arr)) {
+                    BankAccount clientBank = TransactionManager.getBankAccount(accounts, res.getClient().getBankAccountNumber());
+                    long paidAmount = res.getPaidAmount();
+
+                    if (clientBank == null)
+                        work.write(connection -> {
+                            throw new SQLException("Bank account of client " + res.getClient().getUsername() + " doesn't exist!");
+                        });
+                    else
+                        refunds.merge(clientBank, paidAmount, Long::sum);
+
+                    work.write(connection -> {
+                        if (!Database.deleteReservation(connection, res.getClient().getId(), arr.getId(), paidAmount))
+                            throw new SQLException("Reservation " + res + " was changed in the meantime!");
+                    });
+                    refunded.add(res);
+                }
+
+            if (refunded.isEmpty())
+                return 0;
+
+            TransactionManager.performRefunds(work, refunds, agencyBank);
+            work.afterCommit(() -> reservations.recordRefunds(refunded));
+            work.commit();
+        }
+
+        return refunded.size();
     }
 
     /**
      * Removes an arrangement and related data from the system.
      *
-     * @param reservations The list of reservations.
-     * @param arrangements The list of arrangements.
+     * @param reservations The reservation index.
+     * @param arrangements The arrangement index.
      * @param accommodations The list of accommodations.
      * @param arr The arrangement to remove.
      * @throws SQLException if an SQL exception occurs.
      */
-    public static void removeArrangement(List<Reservation> reservations, List<Arrangement> arrangements, List<Accommodation> accommodations, Arrangement arr) throws SQLException {
-        Iterator<Reservation> iter = reservations.iterator();
-        boolean removed = false;
-
-        while (iter.hasNext()) {
-            Reservation res = iter.next();
-            if (res.isArrangementMatching(arr)) {
-                iter.remove();
-                removed = true;
-            }
-        }
-
-        if (removed)
+    public static void removeArrangement(ReservationIndex reservations, ArrangementIndex arrangements, List<Accommodation> accommodations, Arrangement arr) throws SQLException {
+        if (!reservations.removeByArrangement(arr).isEmpty())
             Database.deleteObject(arr.getId(), "rezervacija", "Aranzman_id");
 
         arrangements.remove(arr);
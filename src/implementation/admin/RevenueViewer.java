@@ -1,10 +1,20 @@
 package implementation.admin;
 
+import implementation.general.Money;
+import implementation.general.ReservationAggregator;
 import models.entities.Arrangement;
 import models.entities.Client;
 import models.entities.Reservation;
+import models.enums.ReservationType;
+import models.enums.RevenueDimension;
+import models.indexes.ReservationIndex;
+import models.indexes.RevenueMeasures;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
 
 /**
  * The RevenueViewer class provides utility methods for viewing revenue-related information
@@ -26,22 +36,22 @@ public class RevenueViewer {
         else if (res.isCanceled() && !res.isCanceledByClient())
             return "Reservation canceled! Client " + res.getClient().getUsername() + " did not make the payment on time!";
         else if (res.isWithinThreeDayDeadline())
-            return "Paid: " + res.getPaidAmount() + " Unpaid: " + res.unpaidAmount() + " Phone number: " + res.getClient().getPhoneNumber();
+            return "Paid: " + Money.format(res.getPaidAmount()) + " Unpaid: " + Money.format(res.unpaidAmount()) + " Phone number: " + res.getClient().getPhoneNumber();
         else
-            return "Paid: " + res.getPaidAmount() + " Unpaid: " + res.unpaidAmount();
+            return "Paid: " + Money.format(res.getPaidAmount()) + " Unpaid: " + Money.format(res.unpaidAmount());
     }
 
     /**
      * Finds and returns a list of clients who have reservations matching the given arrangement.
      *
-     * @param reservations The list of reservations to search through.
+     * @param reservations The reservation index to search through.
      * @param arr The arrangement to match against.
      * @return A list of clients with reservations matching the given arrangement.
      */
-    public static List<Client> findClients(List<Reservation> reservations, Arrangement arr) {
+    public static List<Client> findClients(ReservationIndex reservations, Arrangement arr) {
         return reservations
+                .getByArrangement(arr)
                 .stream()
-                .filter(res -> res.isArrangementMatching(arr))
                 .map(Reservation::getClient)
                 .toList();
     }
@@ -49,14 +59,104 @@ public class RevenueViewer {
     /**
      * Calculates and returns the total remaining amount from unpaid reservations.
      *
-     * @param reservations The list of reservations to calculate remaining amount from.
+     * @param reservations The reservation index to calculate remaining amount from.
      * @return The total remaining amount from unpaid reservations.
      */
-    public static double totalRemaining(List<Reservation> reservations) {
-        return reservations
-                .stream()
-                .filter(res -> !res.isCanceled())
-                .mapToDouble(Reservation::unpaidAmount)
-                .sum();
+    public static long totalRemaining(ReservationIndex reservations) {
+        return reservations.getTotalOutstanding();
+    }
+
+    /**
+     * Calculates the amount paid for reservations of arrangements whose trip date falls within a period.
+     *
+     * @param reservations The reservation index to calculate the amount from.
+     * @param from The first day of the period.
+     * @param to The last day of the period.
+     * @return The amount paid for trips in the period.
+     */
+    public static long paidInPeriod(ReservationIndex reservations, LocalDate from, LocalDate to) {
+        return ReservationAggregator.sum(
+                reservations.snapshot(),
+                res -> isTripInPeriod(res, from, to),
+                Reservation::getPaidAmount
+        );
+    }
+
+    /**
+     * Calculates the amount still to be paid for active reservations of arrangements whose trip date falls within a period.
+     *
+     * @param reservations The reservation index to calculate the amount from.
+     * @param from The first day of the period.
+     * @param to The last day of the period.
+     * @return The amount remaining for trips in the period.
+     */
+    public static long remainingInPeriod(ReservationIndex reservations, LocalDate from, LocalDate to) {
+        return ReservationAggregator.sum(
+                reservations.snapshot(),
+                res -> res.getReservationType() == ReservationType.ACTIVE && isTripInPeriod(res, from, to),
+                Reservation::unpaidAmount
+        );
+    }
+
+    private static boolean isTripInPeriod(Reservation res, LocalDate from, LocalDate to) {
+        LocalDate tripDate = res.getArrangement().getTripDate();
+        return !tripDate.isBefore(from) && !tripDate.isAfter(to);
+    }
+
+    /**
+     * Returns a string describing the revenue totals.
+     *
+     * @param measures The revenue totals.
+     * @return A string containing the booked, paid, outstanding and refunded amounts.
+     */
+    public static String revenueInfo(RevenueMeasures measures) {
+        return "Booked: " + Money.format(measures.getBooked()) + " Paid: " + Money.format(measures.getPaid())
+                + " Outstanding: " + Money.format(measures.getOutstanding()) + " Refunded: " + Money.format(measures.getRefunded());
+    }
+
+    /**
+     * Returns a string describing the values revenue is currently filtered by.
+     *
+     * @param filter The fixed value of each filtered dimension.
+     * @return A string listing the filtered dimensions and their values, or "All reservations" if there are none.
+     */
+    public static String revenuePath(Map<RevenueDimension, Object> filter) {
+        if (filter.isEmpty())
+            return "All reservations";
+
+        StringJoiner path = new StringJoiner(" / ");
+        for (Map.Entry<RevenueDimension, Object> fixed : filter.entrySet())
+            path.add(fixed.getKey() + ": " + dimensionValue(fixed.getValue()));
+        return path.toString();
+    }
+
+    /**
+     * Returns a row for every value of a revenue breakdown.
+     *
+     * @param breakdown The revenue totals for each value of a dimension.
+     * @return A list of strings containing the value and its totals.
+     */
+    public static List<String> revenueRows(Map<Object, RevenueMeasures> breakdown) {
+        List<String> rows = new ArrayList<>(breakdown.size());
+        for (Map.Entry<Object, RevenueMeasures> cell : breakdown.entrySet())
+            rows.add(dimensionValue(cell.getKey()) + " (" + cell.getValue().getCount() + ") " + revenueInfo(cell.getValue()));
+        return rows;
+    }
+
+    /**
+     * Finds the first dimension revenue isn't filtered by yet.
+     *
+     * @param filter The fixed value of each filtered dimension.
+     * @return The next dimension to drill down into, or null if all dimensions are filtered.
+     */
+    public static RevenueDimension nextDimension(Map<RevenueDimension, Object> filter) {
+        for (RevenueDimension dimension : RevenueDimension.values())
+            if (!filter.containsKey(dimension))
+                return dimension;
+        return null;
+    }
+
+    private static String dimensionValue(Object value) {
+        return value == null ? "None" : value.toString();
     }
 }
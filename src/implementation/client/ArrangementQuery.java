@@ -0,0 +1,160 @@
+package implementation.client;
+
+import exceptions.InvalidInputException;
+import implementation.general.Money;
+import implementation.general.Validator;
+import models.enums.RoomType;
+import models.enums.Transport;
+
+import java.time.LocalDate;
+
+/**
+ * The ArrangementQuery class holds the immutable criteria of a filter over arrangements on offer.
+ * Its inputs are parsed and validated once, and the arrangement index evaluates the criteria against its own structures.
+ */
+public class ArrangementQuery {
+    private final Long maxPrice;
+    private final String destination;
+    private final Integer starReview;
+    private final RoomType roomType;
+    private final Transport transport;
+    private final LocalDate tripDate;
+    private final LocalDate arrivalDate;
+
+    /** Query without criteria, matching every arrangement on offer */
+    public final static ArrangementQuery ALL = new ArrangementQuery(null, null, null, null, null, null, null);
+
+    /**
+     * Constructs a query from already parsed criteria. A null criterion matches every arrangement.
+     *
+     * @param maxPrice    the highest total price, in cents.
+     * @param destination the destination.
+     * @param starReview  the star review of the accommodation.
+     * @param roomType    the room type of the accommodation.
+     * @param transport   the transport.
+     * @param tripDate    the earliest trip date.
+     * @param arrivalDate the latest arrival date.
+     */
+    public ArrangementQuery(Long maxPrice, String destination, Integer starReview, RoomType roomType, Transport transport, LocalDate tripDate, LocalDate arrivalDate) {
+        this.maxPrice = maxPrice;
+        this.destination = destination;
+        this.starReview = starReview;
+        this.roomType = roomType;
+        this.transport = transport;
+        this.tripDate = tripDate;
+        this.arrivalDate = arrivalDate;
+    }
+
+    /**
+     * Parses and validates the filter inputs entered by a client. Empty inputs match every arrangement.
+     *
+     * @param price       the highest total price.
+     * @param destination the destination.
+     * @param starReview  the star review of the accommodation.
+     * @param roomType    the room type of the accommodation, or null.
+     * @param transport   the transport, or null.
+     * @param tripDate    the earliest trip date, or null.
+     * @param arrivalDate the latest arrival date, or null.
+     * @return the parsed query.
+     * @throws InvalidInputException if the price or star review isn't a valid number.
+     */
+    public static ArrangementQuery parse(String price, String destination, String starReview, RoomType roomType, Transport transport, LocalDate tripDate, LocalDate arrivalDate) throws InvalidInputException {
+        Long parsedPrice = null;
+        Integer parsedStarReview = null;
+
+        if (!price.isEmpty()) {
+            Validator.isPriceValid(price);
+            parsedPrice = Money.parse(price);
+        }
+
+        if (!starReview.isEmpty()) {
+            Validator.isStarReviewValid(starReview);
+            parsedStarReview = Integer.parseInt(starReview);
+        }
+
+        return new ArrangementQuery(
+                parsedPrice,
+                destination.isEmpty() ? null : destination,
+                parsedStarReview,
+                roomType,
+                transport,
+                tripDate,
+                arrivalDate
+        );
+    }
+
+    /**
+     * Retrieves the earliest trip date an arrangement may have to match on the given day.
+     * The on-offer check and the trip date criterion are folded into this single bound.
+     *
+     * @param today the current date.
+     * @return the earliest accepted trip date.
+     */
+    public LocalDate earliestTripDate(LocalDate today) {
+        LocalDate onOffer = today.plusDays(1);
+        return tripDate == null || tripDate.isBefore(onOffer) ? onOffer : tripDate;
+    }
+
+    /**
+     * Retrieves the highest total price criterion.
+     *
+     * @return the highest total price in cents, or null if any price matches.
+     */
+    public Long getMaxPrice() {
+        return maxPrice;
+    }
+
+    /**
+     * Retrieves the destination criterion.
+     *
+     * @return the destination, or null if any destination matches.
+     */
+    public String getDestination() {
+        return destination;
+    }
+
+    /**
+     * Retrieves the star review criterion.
+     *
+     * @return the star review, or null if any star review matches.
+     */
+    public Integer getStarReview() {
+        return starReview;
+    }
+
+    /**
+     * Retrieves the room type criterion.
+     *
+     * @return the room type, or null if any room type matches.
+     */
+    public RoomType getRoomType() {
+        return roomType;
+    }
+
+    /**
+     * Retrieves the transport criterion.
+     *
+     * @return the transport, or null if any transport matches.
+     */
+    public Transport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Retrieves the earliest trip date criterion.
+     *
+     * @return the earliest trip date, or null if there is none.
+     */
+    public LocalDate getTripDate() {
+        return tripDate;
+    }
+
+    /**
+     * Retrieves the latest arrival date criterion.
+     *
+     * @return the latest arrival date, or null if there is none.
+     */
+    public LocalDate getArrivalDate() {
+        return arrivalDate;
+    }
+}
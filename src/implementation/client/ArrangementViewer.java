@@ -1,17 +1,22 @@
 package implementation.client;
 
+import implementation.general.AgencyClock;
+import implementation.general.Money;
 import implementation.general.Validator;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.DatePicker;
+import javafx.scene.control.Label;
 import javafx.scene.control.ListView;
 import javafx.scene.control.TextInputControl;
 import models.entities.Arrangement;
+import models.enums.ArrangementSort;
 import models.enums.RoomType;
+import models.indexes.ArrangementIndex;
+import models.indexes.ArrangementSearchResult;
+import models.indexes.FacetCounts;
 import models.enums.Transport;
 
-import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
 
 /**
  * The ArrangementViewer class provides methods for viewing and filtering arrangements.
@@ -20,101 +25,86 @@ public class ArrangementViewer {
     /**
      * Filters arrangements to display only those currently on offer.
      *
-     * @param arrangements the list of arrangements to filter.
+     * @param arrangements the arrangement index to filter.
      * @return a list of arrangements currently on offer.
      */
-    public static List<Arrangement> arrangementsOnOffer(List<Arrangement> arrangements) {
-        return arrangements
-                .stream()
-                .filter(Arrangement::isOnOffer)
-                .toList();
+    public static List<Arrangement> arrangementsOnOffer(ArrangementIndex arrangements) {
+        return arrangements.search(ArrangementQuery.ALL, AgencyClock.today());
     }
 
     /**
-     * Filters arrangements based on various criteria.
+     * Filters arrangements on offer with a compiled query and counts the results every filter option would give.
      *
-     * @param arrangements the list of arrangements to filter.
-     * @param price        the price criteria.
-     * @param destination  the destination criteria.
-     * @param starReview   the star review criteria.
-     * @param roomType     the room type criteria.
-     * @param transport    the transport criteria.
-     * @param tripDate     the trip date criteria.
-     * @param arrivalDate  the arrival date criteria.
-     * @return a list of filtered arrangements.
+     * @param arrangements the arrangement index to filter.
+     * @param query        the query to filter with.
+     * @return the filtered arrangements and the facet counts.
      */
-    public static List<Arrangement> filterArrangements(List<Arrangement> arrangements, String price, String destination, String starReview, RoomType roomType, Transport transport, LocalDate tripDate, LocalDate arrivalDate) {
-        return arrangementsOnOffer(arrangements)
-                .stream()
-                .filter(arr -> price.isEmpty() || arr.isPriceLower(Double.parseDouble(price)))
-                .filter(arr -> destination.isEmpty() || arr.isDestinationMatching(destination))
-                .filter(arr -> roomType == null || filterHelperRoomType(arr, roomType))
-                .filter(arr -> transport == null || arr.getTransport() == transport)
-                .filter(arr -> starReview.isEmpty() || filterHelperStarReview(arr, starReview))
-                .filter(arr -> tripDate == null || arr.isTripScheduledAfter(tripDate))
-                .filter(arr -> arrivalDate == null || arr.isArrivalPlannedBefore(arrivalDate))
-                .toList();
+    public static ArrangementSearchResult searchArrangements(ArrangementIndex arrangements, ArrangementQuery query) {
+        return arrangements.searchWithFacets(query, AgencyClock.today());
     }
 
     /**
-     * Helper method to filter arrangements based on room type.
+     * Describes facet counts for the filter panel, one line per facet.
      *
-     * @param arrangement the arrangement to be filtered.
-     * @param roomType    the room type criteria.
-     * @return true if the arrangement's accommodation matches the given room type, false otherwise.
+     * @param counts the facet counts.
+     * @return the description of the counts.
      */
-    private static boolean filterHelperRoomType(Arrangement arrangement, RoomType roomType) {
-        return Optional
-                .ofNullable(arrangement.getAccommodation())
-                .map(accommodation -> accommodation.getRoomType() == roomType)
-                .orElse(false);
-    }
+    public static String facetSummary(FacetCounts counts) {
+        StringBuilder sb = new StringBuilder();
 
-    /**
-     * Helper method to filter arrangements based on star review.
-     *
-     * @param arrangement the arrangement to be filtered.
-     * @param starReview  the star review criteria.
-     * @return true if the arrangement's accommodation has the specified star review, false otherwise.
-     */
-    private static boolean filterHelperStarReview(Arrangement arrangement, String starReview) {
-        return Optional
-                .ofNullable(arrangement.getAccommodation())
-                .map(accommodation -> accommodation.getStarReview() == Integer.parseInt(starReview))
-                .orElse(false);
+        for (Transport transport : Transport.values())
+            sb.append(transport).append(": ").append(counts.getTransportCount(transport)).append("  ");
+        sb.append("\n");
+
+        for (RoomType roomType : RoomType.values())
+            sb.append(roomType).append(": ").append(counts.getRoomTypeCount(roomType)).append("  ");
+        sb.append("\n");
+
+        counts.getStarReviewCounts().forEach((stars, count) -> sb.append(stars).append(" stars: ").append(count).append("  "));
+        sb.append("\n");
+
+        long[] bounds = FacetCounts.PRICE_BUCKET_BOUNDS;
+        for (int i = 0; i <= bounds.length; i++) {
+            if (i == 0)
+                sb.append("Up to ").append(Money.format(bounds[0]));
+            else if (i == bounds.length)
+                sb.append("Over ").append(Money.format(bounds[i - 1]));
+            else
+                sb.append(Money.format(bounds[i - 1])).append(" - ").append(Money.format(bounds[i]));
+            sb.append(": ").append(counts.getPriceBucketCount(i)).append("  ");
+        }
+
+        return sb.toString();
     }
 
     /**
-     * Sorts the ListView based on specified criteria and sort order.
+     * Sorts the ListView based on specified criteria and sort order, using the sort orders kept by the index.
      *
-     * @param lv       the ListView to be sorted.
-     * @param criteria the sorting criteria.
-     * @param sort     the sort order (Ascending or Descending).
+     * @param arrangements the arrangement index.
+     * @param lv           the ListView to be sorted.
+     * @param criteria     the sorting criteria.
+     * @param sort         the sort order (Ascending or Descending).
      */
-    public static void sortListView(ListView<Arrangement> lv, int criteria, String sort) {
-        if (criteria == 1 && sort.equals("Ascending"))
-            lv.getItems().sort(Arrangement.tripDateAscending);
-        else if (criteria == 1 && sort.equals("Descending"))
-            lv.getItems().sort(Arrangement.tripDateDescending);
-        else if (criteria == 2 && sort.equals("Ascending"))
-            lv.getItems().sort(Arrangement.priceAscending);
-        else
-            lv.getItems().sort(Arrangement.priceDescending);
+    public static void sortListView(ArrangementIndex arrangements, ListView<Arrangement> lv, ArrangementSort criteria, String sort) {
+        lv.getItems().setAll(arrangements.sort(lv.getItems(), criteria, sort.equals("Descending")));
     }
 
     /**
      * Resets the ListView and input fields to their default states.
      *
-     * @param arrangements the list of arrangements.
+     * @param arrangements the arrangement index.
      * @param lv           the ListView of arrangements.
+     * @param lbl          the label showing the facet counts.
      * @param inputs       the array of text input controls.
      * @param dp1          the date picker for trip date.
      * @param dp2          the date picker for arrival date.
      * @param cb1          the choice box for room type.
      * @param cb2          the choice box for transport.
      */
-    public static void reset(List<Arrangement> arrangements, ListView<Arrangement> lv, TextInputControl[] inputs, DatePicker dp1, DatePicker dp2, ChoiceBox<String> cb1, ChoiceBox<String> cb2) {
-        lv.getItems().setAll(arrangementsOnOffer(arrangements));
+    public static void reset(ArrangementIndex arrangements, ListView<Arrangement> lv, Label lbl, TextInputControl[] inputs, DatePicker dp1, DatePicker dp2, ChoiceBox<String> cb1, ChoiceBox<String> cb2) {
+        ArrangementSearchResult result = searchArrangements(arrangements, ArrangementQuery.ALL);
+        lv.getItems().setAll(result.getArrangements());
+        lbl.setText(facetSummary(result.getFacetCounts()));
         Validator.resetInputs(inputs);
 
         dp1.setValue(null);
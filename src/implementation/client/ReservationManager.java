@@ -1,17 +1,21 @@
 package implementation.client;
 
 import database.Database;
+import database.UnitOfWork;
 import exceptions.UnsuccessfulReservationException;
 import implementation.general.TransactionManager;
 import implementation.general.Validator;
-import models.entities.Arrangement;
 import models.entities.BankAccount;
 import models.entities.Reservation;
+import models.enums.LedgerEntryType;
 import models.enums.ReservationType;
 import models.entities.Client;
+import models.indexes.BankAccountIndex;
+import models.indexes.ReservationIndex;
 
 import java.sql.SQLException;
-import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -30,143 +34,186 @@ public class ReservationManager {
     /**
      * Adds a new reservation.
      *
-     * @param reservations the list of reservations.
+     * @param reservations the reservation index.
      * @param res          the reservation to add.
      * @throws SQLException if a database error occurs.
      */
-    public static void addReservation(List<Reservation> reservations, Reservation res) throws SQLException {
-        reservations.add(res);
-        Database.addReservation(
+    public static void addReservation(ReservationIndex reservations, Reservation res) throws SQLException {
+        try (UnitOfWork work = new UnitOfWork()) {
+            addReservation(work, reservations, res);
+            work.commit();
+        }
+    }
+
+    /**
+     * Adds a new reservation as part of the given unit of work.
+     *
+     * @param work         the unit of work the insert belongs to.
+     * @param reservations the reservation index.
+     * @param res          the reservation to add.
+     */
+    public static void addReservation(UnitOfWork work, ReservationIndex reservations, Reservation res) {
+        work.write(connection -> Database.addReservation(
+                connection,
                 res.getClient().getId(),
                 res.getArrangement().getId(),
                 res.getTotalPrice(),
                 res.getPaidAmount()
-        );
+        ));
+        work.afterCommit(() -> reservations.add(res));
+    }
+
+    /**
+     * Adds a new reservation and transfers its first payment to the agency in a single database transaction.
+     *
+     * @param reservations the reservation index.
+     * @param res          the reservation to add.
+     * @param clientBank   the client's bank account.
+     * @param agencyBank   the agency's bank account.
+     * @throws SQLException if a database error occurs.
+     */
+    public static void reserveArrangement(ReservationIndex reservations, Reservation res, BankAccount clientBank, BankAccount agencyBank) throws SQLException {
+        try (UnitOfWork work = new UnitOfWork()) {
+            addReservation(work, reservations, res);
+            TransactionManager.performTransaction(work, clientBank, agencyBank, res.getPaidAmount(), LedgerEntryType.PAYMENT);
+            work.commit();
+        }
     }
 
     /**
      * Retrieves all reservations for a client.
      *
-     * @param reservations the list of reservations.
+     * @param reservations the reservation index.
      * @param client       the client.
      * @return a list of reservations for the client.
      */
-    public static List<Reservation> getAllReservations(List<Reservation> reservations, Client client) {
-        return reservations
-                .stream()
-                .filter(reservation -> reservation.isClientMatching(client))
-                .toList();
+    public static List<Reservation> getAllReservations(ReservationIndex reservations, Client client) {
+        return reservations.getByClient(client);
     }
 
     /**
      * Retrieves filtered reservations for a client.
      *
-     * @param reservations the list of reservations.
+     * @param reservations the reservation index.
      * @param client       the client.
      * @param rt           the reservation type.
      * @return a list of filtered reservations for the client.
      */
-    public static List<Reservation> getFilteredReservations(List<Reservation> reservations, Client client, ReservationType rt) {
+    public static List<Reservation> getFilteredReservations(ReservationIndex reservations, Client client, ReservationType rt) {
         return reservations
+                .getByClient(client)
                 .stream()
-                .filter(reservation -> reservation.areClientAndTypeMatching(client, rt))
+                .filter(reservation -> reservation.getReservationType() == rt)
                 .toList();
     }
 
-    /**
-     * Marks reservations for a client based on their status.
-     *
-     * @param reservations the list of reservations.
-     * @param client       the client.
-     */
-    public static void markReservations(List<Reservation> reservations, Client client) {
-        for (Reservation reservation : reservations)
-            if (reservation.isClientMatching(client)) {
-                if (reservation.isPast())
-                    reservation.setReservationType(ReservationType.PAST);
-                else if (reservation.isCanceled())
-                    reservation.setReservationType(ReservationType.CANCELED);
-                else
-                    reservation.setReservationType(ReservationType.ACTIVE);
-            }
-    }
-
     /**
      * Calculates the total amount spent by a client on reservations.
      *
-     * @param reservations the list of reservations.
+     * @param reservations the reservation index.
      * @param client       the client.
      * @return the total amount spent by the client.
      */
-    public static double clientMoneySpent(List<Reservation> reservations, Client client) {
-        double sum = 0;
-
-        for (Reservation res : reservations)
-            if (res.isClientMatching(client)) {
-                if (res.getReservationType() == ReservationType.CANCELED && res.getPaidAmount() != 0)
-                    sum += res.getArrangement().getHalfPrice();
-                else
-                    sum += res.getPaidAmount();
-            }
-
-        return sum;
+    public static long clientMoneySpent(ReservationIndex reservations, Client client) {
+        return reservations.getSpent(client);
     }
 
     /**
      * Calculates the remaining amount to be paid by a client for active reservations.
      *
-     * @param reservations the list of reservations.
+     * @param reservations the reservation index.
      * @param client       the client.
      * @return the remaining amount to be paid by the client.
      */
-    public static double remainingAmountToPay(List<Reservation> reservations, Client client) {
-        return reservations
-                .stream()
-                .filter(reservation -> reservation.areClientAndTypeMatching(client, ReservationType.ACTIVE))
-                .mapToDouble(Reservation::unpaidAmount)
-                .sum();
+    public static long remainingAmountToPay(ReservationIndex reservations, Client client) {
+        return reservations.getRemaining(client);
     }
 
     /**
-     * Returns money for canceled reservations that are past the payment deadline.
+     * Settles reservations canceled because their payment deadline passed. The agency keeps half the price
+     * and refunds the rest of the paid amount. Every reservation is settled in its own unit of work, but they are
+     * all submitted before waiting, so they are committed together. The kept half is stored as the paid amount
+     * only if the stored paid amount is still the one the refund was calculated from, so a reservation settled
+     * in the meantime, by another instance of the application or an earlier run, isn't refunded again.
      *
-     * @param reservations the list of reservations.
-     * @param client       the client.
-     * @param clientBank   the client's bank account.
+     * @param reservations the reservation index.
+     * @param due          the reservations whose status changed.
+     * @param bankAccounts the bank account index.
      * @param agencyBank   the agency's bank account.
-     * @param date1        the start date of the payment deadline period.
-     * @param date2        the end date of the payment deadline period.
-     * @throws SQLException if a database error occurs.
+     * @return the settled reservations.
+     * @throws SQLException if a database error occurs for any reservation; the other reservations are still settled.
      */
-    public static void returnMoneyCanceledReservations(List<Reservation> reservations, Client client, BankAccount clientBank, BankAccount agencyBank, LocalDate date1, LocalDate date2) throws SQLException {
-        for (Reservation res : reservations)
-            if (res.isClientMatching(client) && res.isCanceled() && !res.isCanceledByClient()) {
-                double half = res.getArrangement().getHalfPrice();
+    public static List<Reservation> settleMissedDeadlines(ReservationIndex reservations, Collection<Reservation> due, BankAccountIndex bankAccounts, BankAccount agencyBank) throws SQLException {
+        List<Reservation> refundable = due
+                .stream()
+                .filter(ReservationManager::isRefundDue)
+                .toList();
+        List<UnitOfWork> works = new ArrayList<>(refundable.size());
+        List<Reservation> settled = new ArrayList<>(refundable.size());
+        SQLException failure = null;
+
+        for (Reservation res : refundable) {
+            long half = res.getArrangement().getHalfPrice();
+            BankAccount clientBank = TransactionManager.getBankAccount(bankAccounts, res.getClient().getBankAccountNumber());
+            UnitOfWork work = new UnitOfWork();
 
-                if (res.getPaidAmount() != half)
-                    res.setPaidAmount(res.getPaidAmount() - half);
+            if (clientBank == null)
+                work.write(connection -> {
+                    throw new SQLException("Bank account of client " + res.getClient().getUsername() + " doesn't exist!");
+                });
+            else
+                TransactionManager.performTransaction(work, clientBank, agencyBank, res.getPaidAmount() - half, LedgerEntryType.REFUND);
+            updatePaidAmount(work, reservations, res, half);
 
-                if (checkLogs(res, date1, date2))
-                    TransactionManager.performTransaction(clientBank, agencyBank, res.getPaidAmount(), true);
+            work.submit();
+            works.add(work);
+        }
+
+        for (int i = 0; i < works.size(); i++) {
+            try {
+                works.get(i).await();
+                settled.add(refundable.get(i));
+            } catch (SQLException e) {
+                if (failure == null)
+                    failure = e;
+                else
+                    failure.addSuppressed(e);
             }
+        }
+
+        if (failure != null)
+            throw failure;
+        return settled;
     }
 
-    private static boolean checkLogs(Reservation res, LocalDate date1, LocalDate date2) {
-        int diff1 = Arrangement.dateDifference(date1, res.getArrangement().getTripDate());
-        int diff2 = Arrangement.dateDifference(date2, res.getArrangement().getTripDate());
+    private static boolean isRefundDue(Reservation res) {
+        return res.isCanceled() && !res.isCanceledByClient() && res.getPaidAmount() > res.getArrangement().getHalfPrice();
+    }
+
+    /**
+     * Stores a new paid amount for a reservation as part of the given unit of work, provided the stored paid amount
+     * is still the one the reservation has in memory. The unit of work fails if the reservation was changed in the meantime.
+     * The paid amount in memory is updated through the reservation index after commit.
+     */
+    private static void updatePaidAmount(UnitOfWork work, ReservationIndex reservations, Reservation res, long paidAmount) {
+        long expected = res.getPaidAmount();
 
-        return (diff1 >= Arrangement.PAYMENT_DEADLINE_END && diff2 < Arrangement.PAYMENT_DEADLINE_END) && (res.getPaidAmount() != res.getArrangement().getHalfPrice());
+        work.write(connection -> {
+            if (!Database.updateReservationPaidAmount(connection, res.getClient().getId(), res.getArrangement().getId(), expected, paidAmount))
+                throw new SQLException("Reservation " + res + " was changed in the meantime!");
+        });
+        work.afterCommit(() -> reservations.updatePaidAmount(res, paidAmount));
     }
 
     /**
      * Checks if there are any pending payments for a client and alerts them.
      *
-     * @param reservations the list of reservations.
+     * @param reservations the reservation index.
      * @param client       the client.
      * @return true if there are pending payments, false otherwise.
      */
-    public static boolean alertClientToCompletePayment(List<Reservation> reservations, Client client) {
-        for (Reservation res : reservations)
+    public static boolean alertClientToCompletePayment(ReservationIndex reservations, Client client) {
+        for (Reservation res : reservations.getByClient(client))
             if (res.alertClient(client))
                 return true;
         return false;
@@ -175,36 +222,43 @@ public class ReservationManager {
     /**
      * Cancels a client's reservation.
      *
-     * @param res         the reservation to cancel.
-     * @param clientBank  the client's bank account.
-     * @param agencyBank  the agency's bank account.
+     * @param reservations the reservation index.
+     * @param res          the reservation to cancel.
+     * @param clientBank   the client's bank account.
+     * @param agencyBank   the agency's bank account.
      * @throws SQLException if a database error occurs.
      */
-    public static void clientReservationCancel(Reservation res, BankAccount clientBank, BankAccount agencyBank) throws SQLException {
-        TransactionManager.performTransaction(clientBank, agencyBank, res.getPaidAmount(), true);
-        res.setPaidAmount(0);
-        res.setReservationType(ReservationType.CANCELED);
-        Database.updateReservationPaidAmount(res.getClient().getId(), res.getArrangement().getId(), 0);
+    public static void clientReservationCancel(ReservationIndex reservations, Reservation res, BankAccount clientBank, BankAccount agencyBank) throws SQLException {
+        try (UnitOfWork work = new UnitOfWork()) {
+            TransactionManager.performTransaction(work, clientBank, agencyBank, res.getPaidAmount(), LedgerEntryType.CANCELLATION);
+            updatePaidAmount(work, reservations, res, 0);
+            work.commit();
+        }
     }
 
     /**
      * Processes a payment for a reservation.
      *
-     * @param res         the reservation to pay for.
-     * @param clientBank  the client's bank account.
-     * @param agencyBank  the agency's bank account.
-     * @param amount      the amount to pay.
+     * @param reservations the reservation index.
+     * @param res          the reservation to pay for.
+     * @param clientBank   the client's bank account.
+     * @param agencyBank   the agency's bank account.
+     * @param amount       the amount to pay, in cents.
      * @throws UnsuccessfulReservationException if the reservation payment is unsuccessful.
      * @throws SQLException                   if a database error occurs.
      */
-    public static void payReservation(Reservation res, BankAccount clientBank, BankAccount agencyBank, double amount) throws UnsuccessfulReservationException, SQLException {
-        double val = res.unpaidAmount();
+    public static void payReservation(ReservationIndex reservations, Reservation res, BankAccount clientBank, BankAccount agencyBank, long amount) throws UnsuccessfulReservationException, SQLException {
+        long val = res.unpaidAmount();
         if (amount > val)
             amount = val;
 
         Validator.checkBalanceForTransaction(clientBank, amount);
-        res.setPaidAmount(res.getPaidAmount() + amount);
-        TransactionManager.performTransaction(clientBank, agencyBank, amount, false);
-        Database.updateReservationPaidAmount(res.getClient().getId(), res.getArrangement().getId(), res.getPaidAmount());
+        long paidAmount = res.getPaidAmount() + amount;
+
+        try (UnitOfWork work = new UnitOfWork()) {
+            TransactionManager.performTransaction(work, clientBank, agencyBank, amount, LedgerEntryType.PAYMENT);
+            updatePaidAmount(work, reservations, res, paidAmount);
+            work.commit();
+        }
     }
 }
@@ -0,0 +1,40 @@
+package implementation.general;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * The AgencyClock class provides the clock all date-dependent rules of the agency are evaluated against.
+ * It defaults to the system clock and can be replaced, for example with a fixed clock to evaluate
+ * reservation statuses on a chosen day.
+ */
+public class AgencyClock {
+    private static volatile Clock clock = Clock.systemDefaultZone();
+
+    /**
+     * Retrieves the clock of the agency.
+     *
+     * @return the clock.
+     */
+    public static Clock get() {
+        return clock;
+    }
+
+    /**
+     * Replaces the clock of the agency.
+     *
+     * @param newClock the new clock.
+     */
+    public static void set(Clock newClock) {
+        clock = newClock;
+    }
+
+    /**
+     * Retrieves the current date according to the clock of the agency.
+     *
+     * @return the current date.
+     */
+    public static LocalDate today() {
+        return LocalDate.now(clock);
+    }
+}
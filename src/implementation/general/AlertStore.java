@@ -0,0 +1,125 @@
+package implementation.general;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The AlertStore class keeps the usernames of clients who have to be alerted about a canceled arrangement.
+ * Usernames are held in a concurrent set and every change is appended to the alert file:
+ * a plain line adds a username and a line starting with "- " removes it. When removed entries make up
+ * most of the file, it is replaced by a snapshot of the current set.
+ */
+public class AlertStore {
+    private final AppendOnlyFile file;
+    private final Set<String> usernames = ConcurrentHashMap.newKeySet();
+
+    private static AlertStore instance;
+
+    /** Prefix of a line that removes a username. */
+    private final static String REMOVAL = "- ";
+
+    /**
+     * Constructs an alert store backed by the given file and replays its entries.
+     *
+     * @param filename the name of the alert file.
+     * @throws IOException if the file can't be read.
+     */
+    public AlertStore(String filename) throws IOException {
+        file = new AppendOnlyFile(filename);
+
+        for (String line : file.readLines()) {
+            if (line.startsWith(REMOVAL))
+                usernames.remove(line.substring(REMOVAL.length()));
+            else
+                usernames.add(line);
+        }
+
+        if (file.needsCompaction(usernames.size()))
+            snapshot();
+    }
+
+    /**
+     * Retrieves the alert store shared by the application, loading it on first use.
+     *
+     * @param filename the name of the alert file.
+     * @return the shared alert store.
+     */
+    public static synchronized AlertStore getInstance(String filename) {
+        if (instance == null) {
+            try {
+                instance = new AlertStore(filename);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Adds alerts for the given clients with a single append to the alert file.
+     *
+     * @param newUsernames the usernames of the clients to alert.
+     */
+    public synchronized void addAll(Collection<String> newUsernames) {
+        List<String> added = new ArrayList<>();
+        for (String username : newUsernames)
+            if (usernames.add(username))
+                added.add(username);
+
+        if (!added.isEmpty())
+            append(added);
+    }
+
+    /**
+     * Checks whether a client has an alert without clearing it.
+     *
+     * @param username the username of the client.
+     * @return true if the client has an alert, false otherwise.
+     */
+    public boolean contains(String username) {
+        return usernames.contains(username);
+    }
+
+    /**
+     * Clears the alert of a client.
+     *
+     * @param username the username of the client.
+     * @return true if the client had an alert, false otherwise.
+     */
+    public synchronized boolean remove(String username) {
+        if (!usernames.remove(username))
+            return false;
+
+        append(List.of(REMOVAL + username));
+        return true;
+    }
+
+    /**
+     * Appends lines to the alert file and replaces it with a snapshot if it grew too large.
+     *
+     * @param lines the lines to append.
+     */
+    private void append(List<String> lines) {
+        try {
+            file.append(lines);
+
+            if (file.needsCompaction(usernames.size()))
+                snapshot();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Rewrites the alert file with one line per pending alert.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    private void snapshot() throws IOException {
+        file.compact(new ArrayList<>(usernames));
+    }
+}
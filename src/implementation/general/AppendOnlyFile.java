@@ -0,0 +1,90 @@
+package implementation.general;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The AppendOnlyFile class is a text file that changes are appended to as lines, so a change costs one append
+ * instead of rewriting the file. Its owner replays the lines on load and keeps the current state in memory.
+ * Once outdated lines make up most of the file, the owner compacts it to one line per current entry.
+ */
+class AppendOnlyFile {
+    private final Path path;
+    private int lineCount;
+
+    /** Minimum number of lines before the file is considered for compaction. */
+    private final static int COMPACTION_THRESHOLD = 1024;
+
+    /**
+     * Constructs an append-only file with the given name. The file is created on the first append.
+     *
+     * @param filename the name of the file.
+     */
+    AppendOnlyFile(String filename) {
+        path = Paths.get(filename);
+    }
+
+    /**
+     * Reads the non-blank lines of the file. An unterminated last line is terminated,
+     * so lines appended later aren't glued to it.
+     *
+     * @return the lines of the file, or an empty list if it doesn't exist.
+     * @throws IOException if the file can't be read.
+     */
+    List<String> readLines() throws IOException {
+        List<String> lines = new ArrayList<>();
+        if (!Files.exists(path))
+            return lines;
+
+        String content = Files.readString(path);
+        for (String line : content.split("\\R"))
+            if (!line.isBlank())
+                lines.add(line);
+
+        if (!content.isEmpty() && !content.endsWith("\n"))
+            Files.writeString(path, System.lineSeparator(), StandardOpenOption.APPEND);
+
+        lineCount = lines.size();
+        return lines;
+    }
+
+    /**
+     * Appends lines to the file with a single write.
+     *
+     * @param lines the lines to append.
+     * @throws IOException if the file can't be written.
+     */
+    void append(List<String> lines) throws IOException {
+        Files.write(path, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        lineCount += lines.size();
+    }
+
+    /**
+     * Checks whether outdated lines make up more than half of the file.
+     *
+     * @param entries the number of current entries.
+     * @return true if the file should be compacted, false otherwise.
+     */
+    boolean needsCompaction(int entries) {
+        return lineCount > COMPACTION_THRESHOLD && lineCount > 2 * entries;
+    }
+
+    /**
+     * Rewrites the file with the given lines, replacing the old file atomically.
+     *
+     * @param lines the lines describing the current entries.
+     * @throws IOException if the file can't be written.
+     */
+    void compact(List<String> lines) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(tmp, lines);
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        lineCount = lines.size();
+    }
+}
@@ -0,0 +1,115 @@
+package implementation.general;
+
+import implementation.client.ReservationManager;
+import models.entities.Agency;
+import models.entities.Reservation;
+import models.enums.ReservationType;
+import models.indexes.ReservationIndex;
+
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The DeadlineScheduler class processes payment deadlines in the background, independently of client logins.
+ * It runs when the application starts and then at the start of every day. Each run takes the reservations whose
+ * status changed on a scheduled date (entering the payment window, canceled past the payment deadline, or past
+ * after the trip) from the reservation index and settles the canceled ones in a single database transaction.
+ * Each run also recomputes the running totals of the reservation index to catch drift.
+ */
+public class DeadlineScheduler {
+    private static ScheduledExecutorService executor;
+    private static ReservationIndex processedReservations;
+
+    /** Delay before retrying a run that failed with a database error, in milliseconds. */
+    private final static long RETRY_DELAY = 5 * 60 * 1000;
+
+    /**
+     * Starts processing deadlines in the background, unless it is already started.
+     */
+    public static synchronized void start() {
+        if (executor != null)
+            return;
+
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "deadline-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(DeadlineScheduler::run);
+    }
+
+    /**
+     * Stops processing deadlines.
+     */
+    public static synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Processes the reservations that became due since the last run. After the reservations are (re)loaded from the database,
+     * statuses are evaluated on load rather than on a scheduled date, so all canceled reservations are processed once.
+     * When a run fails, the next run goes through all of them again, and the agency is invalidated so that
+     * the next page reloads it.
+     *
+     * @return the reservations settled by this run.
+     * @throws SQLException if a database error occurs.
+     */
+    public static synchronized List<Reservation> processDueDeadlines() throws SQLException {
+        Agency agency = Agency.getCurrent();
+        ReservationIndex reservations = agency.getReservations();
+        Set<Reservation> due = new LinkedHashSet<>(reservations.takeDueBatch(AgencyClock.today()));
+
+        if (reservations != processedReservations)
+            due.addAll(reservations.getByStatus(ReservationType.CANCELED));
+
+        List<Reservation> settled = ReservationManager.settleMissedDeadlines(reservations, due, agency.getBankAccounts(), agency.getAgencyBankAccount());
+        processedReservations = reservations;
+
+        long drift = reservations.checkAggregates();
+        if (drift != 0)
+            System.err.println("Reservation totals drifted by " + Money.format(drift) + " and were recomputed");
+
+        return settled;
+    }
+
+    private static void run() {
+        long delay = RETRY_DELAY;
+
+        try {
+            processDueDeadlines();
+            delay = untilNextDay(AgencyClock.get());
+        } catch (SQLException e) {
+            failed();
+        } catch (RuntimeException e) {
+            System.err.println("Processing deadlines failed, retrying later:");
+            e.printStackTrace();
+            failed();
+        } finally {
+            synchronized (DeadlineScheduler.class) {
+                if (executor != null)
+                    executor.schedule(DeadlineScheduler::run, delay, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private static synchronized void failed() {
+        processedReservations = null;
+        Agency.invalidate();
+    }
+
+    private static long untilNextDay(Clock clock) {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        return Duration.between(now, now.toLocalDate().plusDays(1).atStartOfDay(clock.getZone())).toMillis();
+    }
+}
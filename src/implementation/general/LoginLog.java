@@ -0,0 +1,102 @@
+package implementation.general;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The LoginLog class keeps the last login date of every client.
+ * The log file is read once into memory and every change is appended to it as a new line,
+ * with the last line for a username being the valid one. When outdated lines make up most of the file,
+ * it is compacted to a single line per username.
+ */
+public class LoginLog {
+    private final AppendOnlyFile file;
+    private final Map<String, String> lastLogins = new HashMap<>();
+
+    private static LoginLog instance;
+
+    /**
+     * Constructs a login log backed by the given file and loads its entries.
+     *
+     * @param filename the name of the log file.
+     * @throws IOException if the file can't be read.
+     */
+    public LoginLog(String filename) throws IOException {
+        file = new AppendOnlyFile(filename);
+
+        for (String line : file.readLines()) {
+            String[] info = line.trim().split(" ");
+            if (info.length == 2)
+                lastLogins.put(info[0], info[1]);
+        }
+
+        if (file.needsCompaction(lastLogins.size()))
+            compact();
+    }
+
+    /**
+     * Retrieves the login log shared by the application, loading it on first use.
+     *
+     * @param filename the name of the log file.
+     * @return the shared login log.
+     */
+    public static synchronized LoginLog getInstance(String filename) {
+        if (instance == null) {
+            try {
+                instance = new LoginLog(filename);
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Retrieves the last login date of a client.
+     *
+     * @param username the username of the client.
+     * @return the last login date, or null if the client has no entry.
+     */
+    public synchronized String getLastLogin(String username) {
+        return lastLogins.get(username);
+    }
+
+    /**
+     * Records a login date for a client by appending one line to the log file.
+     *
+     * @param username the username of the client.
+     * @param date     the login date.
+     * @return the previous login date, or null if the client had no entry.
+     */
+    public synchronized String updateLastLogin(String username, LocalDate date) {
+        String previous = lastLogins.put(username, date.toString());
+
+        try {
+            file.append(List.of(username + " " + date));
+
+            if (file.needsCompaction(lastLogins.size()))
+                compact();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+
+        return previous;
+    }
+
+    /**
+     * Rewrites the log file with a single line per username.
+     *
+     * @throws IOException if the file can't be written.
+     */
+    private void compact() throws IOException {
+        List<String> lines = new ArrayList<>(lastLogins.size());
+        for (Map.Entry<String, String> entry : lastLogins.entrySet())
+            lines.add(entry.getKey() + " " + entry.getValue());
+
+        file.compact(lines);
+    }
+}
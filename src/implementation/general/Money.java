@@ -0,0 +1,71 @@
+package implementation.general;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The Money class converts amounts of money held as a number of cents in a long.
+ * Prices, balances and paid amounts are stored and added up in cents, so arithmetic on them is exact
+ * and doesn't allocate, and two amounts are equal only if they are the same number of cents.
+ * Amounts are converted to decimals only when they are parsed from input, written to the database or displayed.
+ */
+public class Money {
+    /** Number of decimal places of an amount. */
+    private final static int SCALE = 2;
+
+    /**
+     * Parses a decimal amount with at most two decimal places.
+     *
+     * @param amount the string representation of the amount.
+     * @return the amount in cents.
+     * @throws NumberFormatException if the string isn't a decimal number, has more than two decimal places or is too large.
+     */
+    public static long parse(String amount) {
+        try {
+            return fromDecimal(new BigDecimal(amount.trim()).setScale(SCALE, RoundingMode.UNNECESSARY));
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Invalid amount: " + amount);
+        }
+    }
+
+    /**
+     * Converts a decimal amount, such as a DECIMAL column, to cents, rounding half up to whole cents.
+     *
+     * @param amount the decimal amount.
+     * @return the amount in cents.
+     * @throws ArithmeticException if the amount is too large.
+     */
+    public static long fromDecimal(BigDecimal amount) {
+        return amount.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Converts an amount in cents to a decimal with two decimal places, such as for a DECIMAL column.
+     *
+     * @param cents the amount in cents.
+     * @return the decimal amount.
+     */
+    public static BigDecimal toDecimal(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    /**
+     * Formats an amount in cents for display, with two decimal places.
+     *
+     * @param cents the amount in cents.
+     * @return the formatted amount.
+     */
+    public static String format(long cents) {
+        return toDecimal(cents).toPlainString();
+    }
+
+    /**
+     * Calculates half of an amount, rounded down to whole cents.
+     *
+     * @param cents the amount in cents.
+     * @return half of the amount in cents.
+     */
+    public static long half(long cents) {
+        return cents / 2;
+    }
+}
@@ -1,13 +1,14 @@
 package implementation.general;
 
+import database.Database;
 import exceptions.InvalidBankAccountException;
 import exceptions.InvalidJmbgException;
 import exceptions.PasswordMismatchException;
-import models.entities.BankAccount;
 import models.entities.Client;
-import models.entities.User;
+import models.indexes.BankAccountIndex;
+import models.indexes.UserDirectory;
 
-import java.util.List;
+import java.sql.SQLException;
 
 /**
  * The Registration class provides methods for registration-related operations.
@@ -16,38 +17,56 @@ public class Registration {
     /**
      * Checks if a bank account exists in the database.
      *
-     * @param bankAccounts  the list of bank accounts.
+     * @param bankAccounts  the bank account index.
      * @param accountNumber the account number to be checked.
      * @throws InvalidBankAccountException if the bank account is not found in the database.
      */
-    public static void isBankAccountInDatabase(List<BankAccount> bankAccounts, String accountNumber) throws InvalidBankAccountException {
-        if (bankAccounts.stream().noneMatch(acc -> acc.isAccountNumberMatching(accountNumber)))
+    public static void isBankAccountInDatabase(BankAccountIndex bankAccounts, String accountNumber) throws InvalidBankAccountException {
+        if (!bankAccounts.containsAccountNumber(accountNumber))
             throw new InvalidBankAccountException(accountNumber);
     }
 
     /**
      * Validates the JMBG (Unique Citizen Number).
      *
-     * @param bankAccounts  the list of bank accounts.
+     * @param bankAccounts  the bank account index.
      * @param accountNumber the account number associated with the JMBG.
      * @param jmbg          the JMBG to be validated.
      * @throws InvalidJmbgException if the JMBG is not valid.
      */
-    public static void isJmbgValid(List<BankAccount> bankAccounts, String accountNumber, String jmbg) throws InvalidJmbgException {
-        if (bankAccounts.stream().noneMatch(acc -> acc.isAccountNumberMatching(accountNumber) && acc.isJmbgMatching(jmbg)))
+    public static void isJmbgValid(BankAccountIndex bankAccounts, String accountNumber, String jmbg) throws InvalidJmbgException {
+        if (!bankAccounts.isOwnedBy(accountNumber, jmbg))
             throw new InvalidJmbgException();
     }
 
     /**
      * Generates the ID for the next client.
      *
-     * @param users the list of users.
+     * @param users the user directory.
      * @return the ID for the next client.
      */
-    public static int nextClientID(List<User> users) {
-        return (int) users
-                .stream()
-                .filter(user -> user instanceof Client)
-                .count() + 1;
+    public static int nextClientID(UserDirectory users) {
+        return users.clientCount() + 1;
+    }
+
+    /**
+     * Adds a new client to the user directory and registers the client in the database.
+     *
+     * @param users  the user directory to which the client will be added.
+     * @param client the client to add and register.
+     * @throws SQLException if an error occurs while registering the client in the database.
+     */
+    public static void registerClient(UserDirectory users, Client client) throws SQLException {
+        Database.registerClient(
+                client.getId(),
+                client.getFirstName(),
+                client.getLastName(),
+                client.getPhoneNumber(),
+                client.getJmbg(),
+                client.getBankAccountNumber(),
+                client.getUsername(),
+                client.getPassword()
+        );
+        users.add(client);
     }
 }
@@ -0,0 +1,79 @@
+package implementation.general;
+
+import models.entities.Reservation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * The ReservationAggregator class sums amounts over snapshots of reservations, for reports that aren't kept
+ * as running totals. The array is split in halves down to blocks of a fixed size, each block is summed in a long,
+ * and the partial sums are added up in the same tree. Small arrays are summed in the calling thread and large ones
+ * in the common fork/join pool. Amounts are in cents, so the sum is exact and the same either way.
+ */
+public class ReservationAggregator {
+    /** Number of reservations summed sequentially within a single task. */
+    private final static int BLOCK_SIZE = 4096;
+    /** Number of reservations from which summing is split over the fork/join pool. */
+    private final static int PARALLEL_THRESHOLD = 32 * BLOCK_SIZE;
+
+    /**
+     * Sums an amount over the reservations that match a filter.
+     *
+     * @param reservations the reservations, which must not change while they are summed.
+     * @param filter       the condition a reservation has to meet to be summed.
+     * @param value        the amount in cents summed for each matching reservation.
+     * @return the sum of the amounts, in cents.
+     * @throws ArithmeticException if the sum overflows a long.
+     */
+    public static long sum(Reservation[] reservations, Predicate<Reservation> filter, ToLongFunction<Reservation> value) {
+        SumTask task = new SumTask(reservations, 0, reservations.length, filter, value);
+        return reservations.length < PARALLEL_THRESHOLD ? task.compute() : ForkJoinPool.commonPool().invoke(task);
+    }
+
+    /**
+     * Sums the values of a range of reservations, splitting ranges larger than a block in halves.
+     */
+    private static class SumTask extends RecursiveTask<Long> {
+        private final static long serialVersionUID = 1L;
+
+        private final transient Reservation[] reservations;
+        private final int from;
+        private final int to;
+        private final transient Predicate<Reservation> filter;
+        private final transient ToLongFunction<Reservation> value;
+
+        private SumTask(Reservation[] reservations, int from, int to, Predicate<Reservation> filter, ToLongFunction<Reservation> value) {
+            this.reservations = reservations;
+            this.from = from;
+            this.to = to;
+            this.filter = filter;
+            this.value = value;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from <= BLOCK_SIZE) {
+                long sum = 0;
+                for (int i = from; i < to; i++)
+                    if (filter.test(reservations[i]))
+                        sum = Math.addExact(sum, value.applyAsLong(reservations[i]));
+                return sum;
+            }
+
+            int middle = (from + to) >>> 1;
+            SumTask left = new SumTask(reservations, from, middle, filter, value);
+            SumTask right = new SumTask(reservations, middle, to, filter, value);
+
+            if (inForkJoinPool()) {
+                right.fork();
+                long sum = left.compute();
+                return Math.addExact(sum, right.join());
+            }
+
+            return Math.addExact(left.compute(), right.compute());
+        }
+    }
+}
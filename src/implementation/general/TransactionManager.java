@@ -1,59 +1,94 @@
 package implementation.general;
 
-import database.Database;
+import database.LedgerEntry;
+import database.UnitOfWork;
 import models.entities.BankAccount;
+import models.enums.LedgerEntryType;
+import models.indexes.BankAccountIndex;
 
 import java.sql.SQLException;
-import java.util.List;
+import java.util.Map;
 
 /**
  * The TransactionManager class provides methods for managing transactions between bank accounts.
  */
 public class TransactionManager {
     /**
-     * Updates the balance of the client and agency bank accounts in the database.
+     * Performs a transaction between two bank accounts in its own database transaction.
      *
      * @param clientBank  The bank account of the client.
      * @param agencyBank  The bank account of the agency.
-     * @throws SQLException if a SQL exception occurs while updating the balances in the database.
+     * @param amount      The amount to be transacted, in cents.
+     * @param type        The kind of transaction, which determines whether the money goes to or from the client.
+     * @throws SQLException if a SQL exception occurs while recording the transaction in the database.
      */
-    private static void updateBalanceInDatabase(BankAccount clientBank, BankAccount agencyBank) throws SQLException {
-        Database.updateBalance(clientBank.getId(), clientBank.getBalance());
-        Database.updateBalance(agencyBank.getId(), agencyBank.getBalance());
+    public static void performTransaction(BankAccount clientBank, BankAccount agencyBank, long amount, LedgerEntryType type) throws SQLException {
+        try (UnitOfWork work = new UnitOfWork()) {
+            performTransaction(work, clientBank, agencyBank, amount, type);
+            work.commit();
+        }
     }
 
     /**
-     * Performs a transaction between two bank accounts.
+     * Performs a transaction between two bank accounts as part of the given unit of work.
+     * The transaction is appended to the ledger as an entry debiting the paying account and crediting the other one,
+     * and the balances in the database are updated from the ledger when the unit of work is committed,
+     * provided a paying client has enough money. Balances in memory are updated after commit.
      *
+     * @param work        The unit of work the transaction belongs to.
      * @param clientBank  The bank account of the client.
      * @param agencyBank  The bank account of the agency.
-     * @param amount      The amount to be transacted.
-     * @param toClient    Specifies whether the transaction is to the client (true) or from the client (false).
-     * @throws SQLException if a SQL exception occurs while updating the balances in the database.
+     * @param amount      The amount to be transacted, in cents.
+     * @param type        The kind of transaction, which determines whether the money goes to or from the client.
      */
-    public static void performTransaction(BankAccount clientBank, BankAccount agencyBank, double amount, boolean toClient) throws SQLException {
-        if (toClient) {
-            clientBank.setBalance(clientBank.getBalance() + amount);
-            agencyBank.setBalance(agencyBank.getBalance() - amount);
-        } else {
-            clientBank.setBalance(clientBank.getBalance() - amount);
-            agencyBank.setBalance(agencyBank.getBalance() + amount);
+    public static void performTransaction(UnitOfWork work, BankAccount clientBank, BankAccount agencyBank, long amount, LedgerEntryType type) {
+        BankAccount payer = type.isToClient() ? agencyBank : clientBank;
+        BankAccount payee = type.isToClient() ? clientBank : agencyBank;
+
+        work.post(new LedgerEntry(payer.getId(), payee.getId(), amount, type));
+
+        work.afterCommit(() -> {
+            payer.withdraw(amount);
+            payee.deposit(amount);
+        });
+    }
+
+    /**
+     * Refunds several clients from the agency account as part of the given unit of work.
+     * Every refund is appended to the ledger as its own entry, so the whole settlement is committed in one transaction
+     * with one batched insert and one balance write per account. In memory, the clients are credited in one pass
+     * after commit and the agency account is debited once by the total.
+     *
+     * @param work        The unit of work the refunds belong to.
+     * @param refunds     The amount in cents to refund to each client's bank account.
+     * @param agencyBank  The bank account of the agency.
+     * @return The total amount refunded, in cents.
+     */
+    public static long performRefunds(UnitOfWork work, Map<BankAccount, Long> refunds, BankAccount agencyBank) {
+        long total = 0;
+
+        for (Map.Entry<BankAccount, Long> refund : refunds.entrySet()) {
+            work.post(new LedgerEntry(agencyBank.getId(), refund.getKey().getId(), refund.getValue(), LedgerEntryType.REFUND));
+            total = Math.addExact(total, refund.getValue());
         }
 
-        updateBalanceInDatabase(clientBank, agencyBank);
+        long agencyDebit = total;
+        work.afterCommit(() -> {
+            refunds.forEach(BankAccount::deposit);
+            agencyBank.withdraw(agencyDebit);
+        });
+
+        return total;
     }
 
     /**
-     * Retrieves the bank account corresponding to the given account number from the provided list of bank accounts.
+     * Retrieves the bank account corresponding to the given account number from the provided bank account index.
      *
-     * @param bankAccounts  The list of bank accounts.
+     * @param bankAccounts  The bank account index.
      * @param accountNumber The account number to retrieve the bank account.
      * @return The BankAccount object if found, or null if not found.
      */
-    public static BankAccount getBankAccount(List<BankAccount> bankAccounts, String accountNumber) {
-        for (BankAccount bankAccount : bankAccounts)
-            if (bankAccount.isAccountNumberMatching(accountNumber))
-                return bankAccount;
-        return null;
+    public static BankAccount getBankAccount(BankAccountIndex bankAccounts, String accountNumber) {
+        return bankAccounts.getByAccountNumber(accountNumber);
     }
 }
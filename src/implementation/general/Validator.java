@@ -4,20 +4,22 @@ import exceptions.*;
 import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.TextInputControl;
 import models.entities.Arrangement;
-import models.entities.Reservation;
 import models.entities.BankAccount;
 import models.entities.Client;
-import models.entities.User;
+import models.indexes.ReservationIndex;
+import models.indexes.UserDirectory;
 import models.enums.RoomType;
 import models.enums.Transport;
 
 import java.time.LocalDate;
-import java.util.List;
 
 /**
  * The Validator class provides methods for input validation and error handling.
  */
 public class Validator {
+    /** Highest star review an accommodation can have. */
+    private final static int MAX_STAR_REVIEW = 5;
+
     /**
      * Checks if any of the text input controls are empty.
      *
@@ -31,14 +33,14 @@ public class Validator {
     }
 
     /**
-     * Validates if a string represents a valid number format.
+     * Validates if a string represents a valid amount of money, with at most two decimal places.
      *
      * @param number the string to be validated.
-     * @return true if the string represents a valid number, false otherwise.
+     * @return true if the string represents a valid amount, false otherwise.
      */
     public static boolean validateNumberFormat(String number) {
         try {
-            Double.parseDouble(number);
+            Money.parse(number);
             return true;
         } catch (NumberFormatException e) {
             return false;
@@ -52,7 +54,7 @@ public class Validator {
      * @return true if the number is negative, false otherwise.
      */
     public static boolean isNegative(String number) {
-        return Double.parseDouble(number) < 0;
+        return Money.parse(number) < 0;
     }
 
     /**
@@ -66,15 +68,31 @@ public class Validator {
             throw new InvalidInputException("Invalid price input!");
     }
 
+    /**
+     * Validates if a star review input is a whole number between 0 and the highest star review.
+     *
+     * @param number the string representation of the star review to be validated.
+     * @throws InvalidInputException if the star review input is invalid.
+     */
+    public static void isStarReviewValid(String number) throws InvalidInputException {
+        try {
+            int starReview = Integer.parseInt(number);
+            if (starReview < 0 || starReview > MAX_STAR_REVIEW)
+                throw new InvalidInputException("Invalid star review input!");
+        } catch (NumberFormatException e) {
+            throw new InvalidInputException("Invalid star review input!");
+        }
+    }
+
     /**
      * Checks if a username is available.
      *
-     * @param users    the list of existing users.
+     * @param users    the directory of existing users.
      * @param username the username to be checked.
      * @throws InvalidInputException if the username is already taken.
      */
-    public static void isUsernameAvailable(List<User> users, String username) throws InvalidInputException {
-        if (users.stream().anyMatch(user -> user.isUsernameMatching(username)))
+    public static void isUsernameAvailable(UserDirectory users, String username) throws InvalidInputException {
+        if (users.containsUsername(username))
             throw new InvalidInputException("Username " + username + " is taken!");
     }
 
@@ -138,25 +156,24 @@ public class Validator {
     /**
      * Checks if an arrangement is already reserved by the client.
      *
-     * @param reservations the list of reservations.
+     * @param reservations the reservation index.
      * @param client       the client making the reservation.
      * @param arr          the arrangement to be reserved.
      * @throws UnsuccessfulReservationException if the arrangement is already reserved by the client.
      */
-    public static void isReserved(List<Reservation> reservations, Client client, Arrangement arr) throws UnsuccessfulReservationException {
-        for (Reservation reservation : reservations)
-            if (reservation.isReservedByClient(client, arr))
-                throw new UnsuccessfulReservationException("Arrangement is already reserved!");
+    public static void isReserved(ReservationIndex reservations, Client client, Arrangement arr) throws UnsuccessfulReservationException {
+        if (reservations.isReserved(client, arr))
+            throw new UnsuccessfulReservationException("Arrangement is already reserved!");
     }
 
     /**
      * Checks if there's sufficient balance for a transaction.
      *
      * @param bankAccount the bank account.
-     * @param amount      the amount to be transacted.
+     * @param amount      the amount to be transacted, in cents.
      * @throws UnsuccessfulReservationException if there's insufficient balance for the transaction.
      */
-    public static void checkBalanceForTransaction(BankAccount bankAccount, double amount) throws UnsuccessfulReservationException {
+    public static void checkBalanceForTransaction(BankAccount bankAccount, long amount) throws UnsuccessfulReservationException {
         if (bankAccount.getBalance() < amount)
             throw new UnsuccessfulReservationException("Insufficient balance for transaction!");
     }
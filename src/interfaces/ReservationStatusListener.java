@@ -0,0 +1,8 @@
+package interfaces;
+
+import models.entities.Reservation;
+import models.enums.ReservationType;
+
+public interface ReservationStatusListener {
+    void statusChanged(Reservation reservation, ReservationType previousType, long previousPaidAmount);
+}
@@ -0,0 +1,7 @@
+package interfaces;
+
+import java.sql.SQLException;
+
+public interface SQLSupplier<T> {
+    T get() throws SQLException;
+}
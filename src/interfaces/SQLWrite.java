@@ -0,0 +1,8 @@
+package interfaces;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+public interface SQLWrite {
+    void write(Connection connection) throws SQLException;
+}
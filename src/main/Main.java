@@ -1,5 +1,7 @@
 package main;
 
+import database.Database;
+import implementation.general.DeadlineScheduler;
 import implementation.general.Navigation;
 import javafx.application.Application;
 import javafx.stage.Stage;
@@ -7,9 +9,16 @@ import javafx.stage.Stage;
 public class Main extends Application {
     @Override
     public void start(Stage stage) throws Exception {
+        DeadlineScheduler.start();
         Navigation.toLoginPage(stage);
     }
 
+    @Override
+    public void stop() {
+        DeadlineScheduler.stop();
+        Database.closePool();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
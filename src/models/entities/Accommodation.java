@@ -12,7 +12,7 @@ public class Accommodation implements Identifiable {
     private final int starReview;
     private final String name;
     private final RoomType roomType;
-    private final double pricePerNight;
+    private final long pricePerNight;
 
     /**
      * Constructs an Accommodation object with the specified attributes.
@@ -21,9 +21,9 @@ public class Accommodation implements Identifiable {
      * @param starReview    the star review rating of the accommodation.
      * @param name          the name of the accommodation.
      * @param roomType      the type of room available in the accommodation.
-     * @param pricePerNight the price per night of the accommodation.
+     * @param pricePerNight the price per night of the accommodation, in cents.
      */
-    public Accommodation(int id, int starReview, String name, RoomType roomType, double pricePerNight) {
+    public Accommodation(int id, int starReview, String name, RoomType roomType, long pricePerNight) {
         this.id = id;
         this.starReview = starReview;
         this.name = name;
@@ -71,9 +71,9 @@ public class Accommodation implements Identifiable {
     /**
      * Retrieves the price per night of the accommodation.
      *
-     * @return the price per night.
+     * @return the price per night, in cents.
      */
-    public double getPricePerNight() {
+    public long getPricePerNight() {
         return pricePerNight;
     }
 
@@ -1,61 +1,151 @@
 package models.entities;
 
 import database.Database;
+import database.IdentityMap;
+import database.ParallelLoader;
+import database.ReservationRow;
+import models.indexes.ArrangementIndex;
+import models.indexes.BankAccountIndex;
+import models.indexes.ReservationIndex;
+import models.indexes.UserDirectory;
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
 
 /**
  * Represents an agency that manages users, arrangements, accommodations, bank accounts, and reservations.
  */
 public class Agency {
-    private List<User> users;
-    private List<Arrangement> arrangements;
+    private UserDirectory users;
+    private ArrangementIndex arrangements;
     private List<Accommodation> accommodations;
-    private List<BankAccount> bankAccounts;
-    private List<Reservation> reservations;
-    private BankAccount agencyBankAccount;
+    private BankAccountIndex bankAccounts;
+    private ReservationIndex reservations;
+    private Map<String, Long> loadTimings;
+
+    /** Agency shared by all controllers, loaded on first use. */
+    private static Agency instance;
+
+    /** Whether the shared agency may no longer match the database and is replaced on the next page load. */
+    private static boolean stale;
+
+    /** Number of data sets loaded from the database at the same time. */
+    private final static int LOAD_PARALLELISM = 6;
 
     /** Error message for database issues. */
     public final static String DATABASE_ERROR = "Error with database!";
 
+    /**
+     * Retrieves the agency shared by all pages, loading it from the database if it isn't cached or is stale.
+     * Write paths update the cached lists and objects directly, so navigating between pages doesn't reload data.
+     * Pages call this when they are built, so a stale agency is only replaced when no page holds its objects anymore.
+     *
+     * @return the shared agency.
+     * @throws SQLException if there is an error accessing the database.
+     */
+    public static synchronized Agency getInstance() throws SQLException {
+        if (instance == null || stale) {
+            instance = new Agency();
+            stale = false;
+        }
+        return instance;
+    }
+
+    /**
+     * Retrieves the agency shared by all pages without replacing it when it is stale, loading it only if it isn't cached.
+     * Used by background work, which mustn't swap the agency out from under the page being shown.
+     *
+     * @return the shared agency.
+     * @throws SQLException if there is an error accessing the database.
+     */
+    public static synchronized Agency getCurrent() throws SQLException {
+        if (instance == null)
+            instance = new Agency();
+        return instance;
+    }
+
+    /**
+     * Marks the cached agency as stale, so that the next page reloads everything from the database.
+     * Used when memory may no longer match the database, for example after a failed write.
+     * The page being shown keeps working with the agency it holds until the user navigates away.
+     */
+    public static synchronized void invalidate() {
+        stale = true;
+    }
+
     /**
      * Initializes the agency with data retrieved from the database.
      *
      * @throws SQLException if there is an error accessing the database.
      */
-    public Agency() throws SQLException {
-        users = Database.getUsers();
-        arrangements = Database.getArrangements();
-        accommodations = Database.getAccommodations();
-        bankAccounts = Database.getBankAccounts();
-        reservations = Database.getReservations();
-        agencyBankAccount = Database.getAgencyBankAccount();
+    private Agency() throws SQLException {
+        try (ParallelLoader loader = new ParallelLoader(LOAD_PARALLELISM)) {
+            Future<List<Client>> clients = loader.submit("clients", Database::getClients);
+            Future<List<Admin>> admins = loader.submit("admins", Database::getAdmins);
+            Future<List<Accommodation>> accommodationRows = loader.submit("accommodations", Database::getAccommodations);
+            IdentityMap<Accommodation> joinedAccommodations = new IdentityMap<>(0);
+            Future<List<Arrangement>> arrangementRows = loader.submit("arrangements", () -> Database.getArrangements(joinedAccommodations));
+            Future<List<BankAccount>> accounts = loader.submit("bank accounts", Database::getBankAccounts);
+            Future<List<ReservationRow>> reservationRows = loader.submit("reservations", Database::getReservationRows);
+
+            users = new UserDirectory(ParallelLoader.await(admins), ParallelLoader.await(clients));
+            arrangements = new ArrangementIndex(ParallelLoader.await(arrangementRows));
+            accommodations = shareAccommodations(ParallelLoader.await(accommodationRows), joinedAccommodations);
+            bankAccounts = new BankAccountIndex(ParallelLoader.await(accounts));
+            reservations = new ReservationIndex(Database.resolveReservations(
+                    ParallelLoader.await(reservationRows),
+                    IdentityMap.of(users.getClients(), Client::getId),
+                    IdentityMap.of(arrangements.getAll(), Arrangement::getId)
+            ));
+            loadTimings = loader.getTimings();
+        }
+    }
+
+    /**
+     * Replaces loaded accommodations with the instances already referenced by arrangements,
+     * so that an accommodation is represented by the same object everywhere.
+     *
+     * @param accommodations the accommodations loaded from their own table.
+     * @param joined         the accommodations built while loading arrangements.
+     * @return the list of accommodations sharing instances with arrangements.
+     */
+    private static List<Accommodation> shareAccommodations(List<Accommodation> accommodations, IdentityMap<Accommodation> joined) {
+        List<Accommodation> shared = new ArrayList<>(accommodations.size());
+
+        for (Accommodation accommodation : accommodations) {
+            Accommodation instance = joined.get(accommodation.getId());
+            shared.add(instance != null ? instance : accommodation);
+        }
+
+        return shared;
     }
 
     /**
-     * Retrieves the list of arrangements managed by the agency.
+     * Retrieves the arrangements managed by the agency, indexed for searching.
      *
-     * @return the list of arrangements.
+     * @return the arrangement index.
      */
-    public List<Arrangement> getArrangements() {
+    public ArrangementIndex getArrangements() {
         return arrangements;
     }
 
     /**
-     * Retrieves the list of users managed by the agency.
+     * Retrieves the directory of users managed by the agency.
      *
-     * @return the list of users.
+     * @return the user directory.
      */
-    public List<User> getUsers() {
+    public UserDirectory getUsers() {
         return users;
     }
 
     /**
-     * Retrieves the list of reservations managed by the agency.
+     * Retrieves the reservations managed by the agency, indexed by client and arrangement.
      *
-     * @return the list of reservations.
+     * @return the reservation index.
      */
-    public List<Reservation> getReservations() {
+    public ReservationIndex getReservations() {
         return reservations;
     }
 
@@ -69,11 +159,11 @@ public class Agency {
     }
 
     /**
-     * Retrieves the list of bank accounts managed by the agency.
+     * Retrieves the index of bank accounts managed by the agency.
      *
-     * @return the list of bank accounts.
+     * @return the bank account index.
      */
-    public List<BankAccount> getBankAccounts() {
+    public BankAccountIndex getBankAccounts() {
         return bankAccounts;
     }
 
@@ -83,6 +173,15 @@ public class Agency {
      * @return the agency bank account.
      */
     public BankAccount getAgencyBankAccount() {
-        return agencyBankAccount;
+        return bankAccounts.getAgencyBankAccount();
+    }
+
+    /**
+     * Retrieves how long each data set took to load, in milliseconds, plus the total load time.
+     *
+     * @return the load durations keyed by data set.
+     */
+    public Map<String, Long> getLoadTimings() {
+        return loadTimings;
     }
 }
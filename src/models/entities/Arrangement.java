@@ -1,11 +1,12 @@
 package models.entities;
 
+import implementation.general.AgencyClock;
+import implementation.general.Money;
 import interfaces.Identifiable;
 import models.enums.Transport;
 
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
-import java.util.Comparator;
 
 /**
  * The Arrangement class represents a travel arrangement.
@@ -18,19 +19,13 @@ public class Arrangement implements Identifiable {
     private final Transport transport;
     private final LocalDate tripDate;
     private final LocalDate arrivalDate;
-    private final double price;
+    private final long price;
     private final Accommodation accommodation;
 
     /** Constants for payment deadline calculation */
     public final static int PAYMENT_DEADLINE_START = 16;
     public final static int PAYMENT_DEADLINE_END = 14;
 
-    /** Comparators for sorting arrangements */
-    public final static Comparator<Arrangement> priceAscending = (o1, o2) -> Double.compare(o1.calculateTotalPrice(), o2.calculateTotalPrice());
-    public final static Comparator<Arrangement> priceDescending = (o1, o2) -> Double.compare(o2.calculateTotalPrice(), o1.calculateTotalPrice());
-    public final static Comparator<Arrangement> tripDateAscending = (o1, o2) -> o1.tripDate.compareTo(o2.tripDate);
-    public final static Comparator<Arrangement> tripDateDescending = (o1, o2) -> o2.tripDate.compareTo(o1.tripDate);
-
     /**
      * Constructs an Arrangement object with the specified attributes.
      *
@@ -40,10 +35,10 @@ public class Arrangement implements Identifiable {
      * @param transport     the mode of transport for the arrangement.
      * @param tripDate      the date of the trip.
      * @param arrivalDate   the arrival date.
-     * @param price         the price of the arrangement.
+     * @param price         the price of the arrangement, in cents.
      * @param accommodation the accommodation for the arrangement.
      */
-    public Arrangement(int id, String name, String destination, Transport transport, LocalDate tripDate, LocalDate arrivalDate, double price, Accommodation accommodation) {
+    public Arrangement(int id, String name, String destination, Transport transport, LocalDate tripDate, LocalDate arrivalDate, long price, Accommodation accommodation) {
         this.id = id;
         this.name = name;
         this.destination = destination;
@@ -114,7 +109,7 @@ public class Arrangement implements Identifiable {
      *
      * @return the price of the arrangement.
      */
-    public double getPrice() {
+    public long getPrice() {
         return price;
     }
 
@@ -144,15 +139,15 @@ public class Arrangement implements Identifiable {
      * @return true if the trip is scheduled in the future, false otherwise.
      */
     public boolean isOnOffer() {
-        return tripDate.isAfter(LocalDate.now());
+        return tripDate.isAfter(AgencyClock.today());
     }
 
     /**
      * Calculates the total price of the arrangement, including accommodation if available.
      *
-     * @return the total price of the arrangement.
+     * @return the total price of the arrangement, in cents.
      */
-    public double calculateTotalPrice() {
+    public long calculateTotalPrice() {
         return accommodation == null ? price : price + (getNumberOfNights() * accommodation.getPricePerNight());
     }
 
@@ -166,12 +161,12 @@ public class Arrangement implements Identifiable {
     }
 
     /**
-     * Calculates the half price of the arrangement.
+     * Calculates the half price of the arrangement, rounded down to whole cents.
      *
-     * @return the half price of the arrangement.
+     * @return the half price of the arrangement, in cents.
      */
-    public double getHalfPrice() {
-        return calculateTotalPrice() / 2;
+    public long getHalfPrice() {
+        return Money.half(calculateTotalPrice());
     }
 
     /**
@@ -180,7 +175,7 @@ public class Arrangement implements Identifiable {
      * @return the number of days until the trip date.
      */
     public int daysUntilTrip() {
-        return dateDifference(LocalDate.now(), tripDate);
+        return dateDifference(AgencyClock.today(), tripDate);
     }
 
     /**
@@ -192,12 +187,21 @@ public class Arrangement implements Identifiable {
         return daysUntilTrip() < PAYMENT_DEADLINE_END;
     }
 
+    /**
+     * Retrieves the first day past the payment deadline, on which reservations that aren't totally paid are canceled.
+     *
+     * @return the first day past the payment deadline.
+     */
+    public LocalDate getDeadlinePassedDate() {
+        return tripDate.minusDays(PAYMENT_DEADLINE_END - 1);
+    }
+
     /**
      * Retrieves the amount to be paid based on whether the arrangement is past the payment deadline or not.
      *
      * @return the amount to be paid.
      */
-    public double getAmountForPayment() {
+    public long getAmountForPayment() {
         return isPastDeadline() ? calculateTotalPrice() : getHalfPrice();
     }
 
@@ -226,7 +230,7 @@ public class Arrangement implements Identifiable {
      * @param amount the amount to compare with.
      * @return true if the total price is lower than or equal to the specified amount, false otherwise.
      */
-    public boolean isPriceLower(double amount) {
+    public boolean isPriceLower(long amount) {
         return calculateTotalPrice() <= amount;
     }
 
@@ -256,7 +260,7 @@ public class Arrangement implements Identifiable {
      * @return a string containing the name, destination, total price, transport, trip date, and arrival date of the arrangement.
      */
     private String oneDayTripToString() {
-        return name + " | " + destination + " | " + calculateTotalPrice()  + " | " + transport + " | " + tripDate + " | " + arrivalDate;
+        return name + " | " + destination + " | " + Money.format(calculateTotalPrice())  + " | " + transport + " | " + tripDate + " | " + arrivalDate;
     }
 
     /**
@@ -265,7 +269,7 @@ public class Arrangement implements Identifiable {
      * @return a string containing the name, destination, total price, transport, trip date, arrival date, and accommodation of the arrangement.
      */
     private String tripToString() {
-        return name + " | " + destination + " | " + calculateTotalPrice()  + " | " + transport + " | " + tripDate + " | " + arrivalDate + " | " + accommodation;
+        return name + " | " + destination + " | " + Money.format(calculateTotalPrice())  + " | " + transport + " | " + tripDate + " | " + arrivalDate + " | " + accommodation;
     }
 
     /**
@@ -1,14 +1,25 @@
 package models.entities;
 
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * The BankAccount class represents a bank account entity.
  * It contains information about the account holder, account number, and balance.
+ * The balance is only changed by adding deposits and withdrawals to it, never by overwriting it,
+ * so concurrent updates can't be lost and they can be applied in any order. A client account updates its balance
+ * with a single atomic add. The agency account takes part in every payment, so its movements are added to a striped
+ * accumulator instead, which spreads concurrent adds over separate cells and sums them when the balance is read.
  */
 public class BankAccount {
     private final int id;
     private final String jmbg;
     private final String accountNumber;
-    private double balance;
+    private final AtomicLong balance;
+    private final LongAdder movements;
+
+    /** Length of the JMBG of an agency */
+    private final static int AGENCY_JMBG_LENGTH = 10;
 
     /**
      * Constructs a BankAccount object with the specified attributes.
@@ -16,13 +27,14 @@ public class BankAccount {
      * @param id            the unique identifier of the bank account.
      * @param jmbg          the JMBG (Unique Master Citizen Number) associated with the account.
      * @param accountNumber the account number.
-     * @param balance       the balance of the account.
+     * @param balance       the balance of the account, in cents.
      */
-    public BankAccount(int id, String jmbg, String accountNumber, double balance) {
+    public BankAccount(int id, String jmbg, String accountNumber, long balance) {
         this.id = id;
         this.jmbg = jmbg;
         this.accountNumber = accountNumber;
-        this.balance = balance;
+        this.balance = new AtomicLong(balance);
+        this.movements = jmbg.length() == AGENCY_JMBG_LENGTH ? new LongAdder() : null;
     }
 
     /**
@@ -55,19 +67,36 @@ public class BankAccount {
     /**
      * Retrieves the balance of the account.
      *
-     * @return the balance of the account.
+     * @return the balance of the account, in cents.
      */
-    public double getBalance() {
-        return balance;
+    public long getBalance() {
+        return movements == null ? balance.get() : balance.get() + movements.sum();
     }
 
     /**
-     * Sets the balance of the account.
+     * Adds money to the balance of the account.
      *
-     * @param balance the new balance to set.
+     * @param amount the amount to add, in cents.
      */
-    public void setBalance(double balance) {
-        this.balance = balance;
+    public void deposit(long amount) {
+        add(amount);
+    }
+
+    /**
+     * Takes money from the balance of the account. The amount is taken unconditionally;
+     * whether the account has enough money is checked when the movement is committed to the ledger.
+     *
+     * @param amount the amount to take, in cents.
+     */
+    public void withdraw(long amount) {
+        add(-amount);
+    }
+
+    private void add(long delta) {
+        if (movements == null)
+            balance.addAndGet(delta);
+        else
+            movements.add(delta);
     }
 
     /**
@@ -76,7 +105,7 @@ public class BankAccount {
      * @return true if the bank account belongs to an agency, false otherwise.
      */
     public boolean isAgencyBankAccount() {
-        return jmbg.length() == 10;
+        return jmbg.length() == AGENCY_JMBG_LENGTH;
     }
 
     /**
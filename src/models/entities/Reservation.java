@@ -1,32 +1,43 @@
 package models.entities;
 
+import implementation.general.AgencyClock;
+import interfaces.ReservationStatusListener;
 import models.enums.ReservationType;
 
+import java.time.LocalDate;
+
 /**
  * Represents a reservation made by a client for a specific arrangement.
+ * The status of a reservation (its type and whether it is in the payment window) is stored rather than
+ * derived on every call. It is re-evaluated when the paid amount changes and when the date reaches the
+ * next day on which the status can change, which is kept alongside it.
+ * Status and paid amount are only changed while holding the lock of the reservation index,
+ * and are readable without it. Amounts are held in cents, so a reservation is totally paid exactly when the paid amount equals the total price.
  */
 public class Reservation {
     private final Client client;
     private final Arrangement arrangement;
-    private ReservationType reservationType;
-    private final double totalPrice;
-    private double paidAmount;
+    private volatile ReservationType reservationType;
+    private volatile boolean inPaymentWindow;
+    private volatile LocalDate nextStatusChange;
+    private final long totalPrice;
+    private volatile long paidAmount;
+    private ReservationStatusListener statusListener;
 
     /**
-     * Constructs a new Reservation object.
+     * Constructs a new Reservation object with its status evaluated for the current date.
      *
      * @param client          the client making the reservation.
      * @param arrangement     the arrangement being reserved.
-     * @param reservationType the type of reservation.
-     * @param totalPrice      the total price of the reservation.
-     * @param paidAmount      the amount already paid for the reservation.
+     * @param totalPrice      the total price of the reservation, in cents.
+     * @param paidAmount      the amount already paid for the reservation, in cents.
      */
-    public Reservation(Client client, Arrangement arrangement, ReservationType reservationType, double totalPrice, double paidAmount) {
+    public Reservation(Client client, Arrangement arrangement, long totalPrice, long paidAmount) {
         this.client = client;
         this.arrangement = arrangement;
-        this.reservationType = reservationType;
         this.totalPrice = totalPrice;
         this.paidAmount = paidAmount;
+        evaluateStatus(AgencyClock.today());
     }
 
     /**
@@ -56,39 +67,108 @@ public class Reservation {
         return reservationType;
     }
 
+    /**
+     * Retrieves the next date on which the status of the reservation can change.
+     *
+     * @return the date of the next status change, or null if the status is final.
+     */
+    public LocalDate getNextStatusChange() {
+        return nextStatusChange;
+    }
+
     /**
      * Retrieves the total price of the reservation.
      *
-     * @return the total price of the reservation.
+     * @return the total price of the reservation, in cents.
      */
-    public double getTotalPrice() {
+    public long getTotalPrice() {
         return totalPrice;
     }
 
     /**
      * Retrieves the amount already paid for the reservation.
      *
-     * @return the amount already paid for the reservation.
+     * @return the amount already paid for the reservation, in cents.
      */
-    public double getPaidAmount() {
+    public long getPaidAmount() {
         return paidAmount;
     }
 
     /**
-     * Sets the amount already paid for the reservation.
+     * Sets the amount already paid for the reservation and re-evaluates its status.
+     * A reservation held by a reservation index must only be changed through the index, which holds its lock meanwhile.
      *
-     * @param paidAmount the amount already paid for the reservation.
+     * @param paidAmount the amount already paid for the reservation, in cents.
      */
-    public void setPaidAmount(double paidAmount) {
+    public void setPaidAmount(long paidAmount) {
+        long previousPaidAmount = this.paidAmount;
         this.paidAmount = paidAmount;
+        refreshStatus(AgencyClock.today(), previousPaidAmount);
     }
 
     /**
-     * Updates reservation type
-     * @param reservationType new reservation type
+     * Sets the listener notified when the status of the reservation changes.
+     *
+     * @param statusListener the listener, or null to remove it.
      */
-    public void setReservationType(ReservationType reservationType) {
-        this.reservationType = reservationType;
+    public void setStatusListener(ReservationStatusListener statusListener) {
+        this.statusListener = statusListener;
+    }
+
+    /**
+     * Re-evaluates the status of the reservation for the given date and notifies the listener if it changed.
+     * A reservation held by a reservation index must only be refreshed by the index, which holds its lock meanwhile.
+     *
+     * @param today the current date.
+     */
+    public void refreshStatus(LocalDate today) {
+        refreshStatus(today, paidAmount);
+    }
+
+    private void refreshStatus(LocalDate today, long previousPaidAmount) {
+        ReservationType previousType = reservationType;
+        boolean previousWindow = inPaymentWindow;
+        LocalDate previousStatusChange = nextStatusChange;
+
+        evaluateStatus(today);
+
+        boolean changed = previousType != reservationType || previousWindow != inPaymentWindow || previousPaidAmount != paidAmount
+                || (previousStatusChange == null ? nextStatusChange != null : !previousStatusChange.equals(nextStatusChange));
+
+        if (changed && statusListener != null)
+            statusListener.statusChanged(this, previousType, previousPaidAmount);
+    }
+
+    /**
+     * Evaluates the status of the reservation for the given date. A reservation canceled by the client stays canceled;
+     * otherwise it is canceled on the first day past the payment deadline unless it is totally paid, and past from the
+     * trip date on if it is totally paid. The payment window lasts from the start of the payment deadline until its end.
+     *
+     * @param today the current date.
+     */
+    private void evaluateStatus(LocalDate today) {
+        LocalDate tripDate = arrangement.getTripDate();
+        LocalDate windowStart = tripDate.minusDays(Arrangement.PAYMENT_DEADLINE_START);
+        LocalDate deadlinePassed = arrangement.getDeadlinePassedDate();
+        boolean totallyPaid = paidAmount == totalPrice;
+
+        if (totallyPaid && !today.isBefore(tripDate))
+            reservationType = ReservationType.PAST;
+        else if (paidAmount == 0 || (!totallyPaid && !today.isBefore(deadlinePassed)))
+            reservationType = ReservationType.CANCELED;
+        else
+            reservationType = ReservationType.ACTIVE;
+
+        inPaymentWindow = !totallyPaid && !today.isBefore(windowStart) && today.isBefore(deadlinePassed);
+
+        if (reservationType != ReservationType.ACTIVE)
+            nextStatusChange = null;
+        else if (totallyPaid)
+            nextStatusChange = tripDate;
+        else if (today.isBefore(windowStart))
+            nextStatusChange = windowStart;
+        else
+            nextStatusChange = deadlinePassed;
     }
 
     /**
@@ -106,7 +186,7 @@ public class Reservation {
      * @return true if the reservation is past its trip date and fully paid, false otherwise.
      */
     public boolean isPast() {
-        return isTotallyPaid() && !arrangement.isOnOffer();
+        return reservationType == ReservationType.PAST;
     }
 
     /**
@@ -124,15 +204,15 @@ public class Reservation {
      * @return true if the reservation is canceled, false otherwise.
      */
     public boolean isCanceled() {
-        return isCanceledByClient() || (!isTotallyPaid() && arrangement.isPastDeadline());
+        return reservationType == ReservationType.CANCELED;
     }
 
     /**
      * Calculates the unpaid amount for the reservation.
      *
-     * @return the unpaid amount for the reservation.
+     * @return the unpaid amount for the reservation, in cents.
      */
-    public double unpaidAmount() {
+    public long unpaidAmount() {
         return totalPrice - paidAmount;
     }
 
@@ -193,7 +273,7 @@ public class Reservation {
      * @return true if the reservation is within the three-day deadline, false otherwise.
      */
     public boolean isWithinThreeDayDeadline() {
-        return !isTotallyPaid() && arrangement.isInDeadline();
+        return inPaymentWindow;
     }
 
     /**
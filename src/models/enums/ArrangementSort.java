@@ -0,0 +1,48 @@
+package models.enums;
+
+/**
+ * Enum representing the keys arrangements can be sorted by.
+ */
+public enum ArrangementSort {
+    TRIP_DATE("Trip date"),
+    PRICE("Price"),
+    STAR_REVIEW("Stars"),
+    TRIP_LENGTH("Trip length");
+
+    private String key;
+
+    /**
+     * Constructor to initialize ArrangementSort enum with a string representation.
+     *
+     * @param key the string representation of the sort key.
+     */
+    private ArrangementSort(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Returns the ArrangementSort enum corresponding to the given string representation.
+     *
+     * @param key the string representation of the sort key.
+     * @return the ArrangementSort enum corresponding to the given string, or null if not found.
+     */
+    public static ArrangementSort fromString(String key) {
+        return switch (key) {
+            case "Trip date" -> TRIP_DATE;
+            case "Price" -> PRICE;
+            case "Stars" -> STAR_REVIEW;
+            case "Trip length" -> TRIP_LENGTH;
+            default -> null;
+        };
+    }
+
+    /**
+     * Returns the string representation of the ArrangementSort enum.
+     *
+     * @return the string representation of the sort key.
+     */
+    @Override
+    public String toString() {
+        return key;
+    }
+}
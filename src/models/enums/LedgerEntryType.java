@@ -0,0 +1,55 @@
+package models.enums;
+
+/**
+ * Enum representing the kinds of money movements recorded in the ledger.
+ */
+public enum LedgerEntryType {
+    PAYMENT("Payment"),
+    REFUND("Refund"),
+    CANCELLATION("Cancellation");
+
+    private String entryType;
+
+    /**
+     * Constructor to initialize LedgerEntryType enum with a string representation.
+     *
+     * @param entryType the string representation of the entry type.
+     */
+    private LedgerEntryType(String entryType) {
+        this.entryType = entryType;
+    }
+
+    /**
+     * Returns the LedgerEntryType enum corresponding to the given string representation.
+     *
+     * @param entryType the string representation of the entry type.
+     * @return the LedgerEntryType enum corresponding to the given string, or null if not found.
+     */
+    public static LedgerEntryType fromString(String entryType) {
+        return switch (entryType) {
+            case "Payment" -> PAYMENT;
+            case "Refund" -> REFUND;
+            case "Cancellation" -> CANCELLATION;
+            default -> null;
+        };
+    }
+
+    /**
+     * Checks if money of this kind of movement goes from the agency to the client.
+     *
+     * @return true if the money goes to the client, false if it goes to the agency.
+     */
+    public boolean isToClient() {
+        return this != PAYMENT;
+    }
+
+    /**
+     * Returns the string representation of the LedgerEntryType enum.
+     *
+     * @return the string representation of the entry type.
+     */
+    @Override
+    public String toString() {
+        return entryType;
+    }
+}
@@ -0,0 +1,48 @@
+package models.enums;
+
+/**
+ * Enum representing the dimensions revenue can be broken down by.
+ */
+public enum RevenueDimension {
+    DESTINATION("Destination"),
+    TRIP_MONTH("Trip month"),
+    TRANSPORT("Transport"),
+    ROOM_TYPE("Room type");
+
+    private String dimension;
+
+    /**
+     * Constructor to initialize RevenueDimension enum with a string representation.
+     *
+     * @param dimension the string representation of the dimension.
+     */
+    private RevenueDimension(String dimension) {
+        this.dimension = dimension;
+    }
+
+    /**
+     * Returns the RevenueDimension enum corresponding to the given string representation.
+     *
+     * @param dimension the string representation of the dimension.
+     * @return the RevenueDimension enum corresponding to the given string, or null if not found.
+     */
+    public static RevenueDimension fromString(String dimension) {
+        return switch (dimension) {
+            case "Destination" -> DESTINATION;
+            case "Trip month" -> TRIP_MONTH;
+            case "Transport" -> TRANSPORT;
+            case "Room type" -> ROOM_TYPE;
+            default -> null;
+        };
+    }
+
+    /**
+     * Returns the string representation of the RevenueDimension enum.
+     *
+     * @return the string representation of the dimension.
+     */
+    @Override
+    public String toString() {
+        return dimension;
+    }
+}
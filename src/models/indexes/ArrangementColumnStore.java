@@ -0,0 +1,211 @@
+package models.indexes;
+
+import implementation.client.ArrangementQuery;
+import models.entities.Accommodation;
+import models.entities.Arrangement;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ArrangementColumnStore class keeps the filterable attributes of arrangements in primitive arrays,
+ * one array per attribute and one row per arrangement in insertion order. Total prices are precomputed,
+ * dates are stored as epoch days, transport and room type as byte codes, star reviews as they are, and destinations
+ * as codes into a dictionary. A scan reads only these arrays and returns the ids of matching rows,
+ * so arrangement objects are touched only for the rows that are returned.
+ * Removing an arrangement only marks its row as removed, and removed rows are compacted away once they pile up.
+ * The store isn't synchronized; ArrangementIndex only accesses it while holding its own lock.
+ */
+public class ArrangementColumnStore {
+    private int size;
+    private int removed;
+    private boolean[] live = new boolean[INITIAL_CAPACITY];
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private long[] totalPrices = new long[INITIAL_CAPACITY];
+    private int[] tripDays = new int[INITIAL_CAPACITY];
+    private int[] arrivalDays = new int[INITIAL_CAPACITY];
+    private byte[] transports = new byte[INITIAL_CAPACITY];
+    private byte[] roomTypes = new byte[INITIAL_CAPACITY];
+    private int[] starReviews = new int[INITIAL_CAPACITY];
+    private int[] destinations = new int[INITIAL_CAPACITY];
+    private final Map<String, Integer> destinationCodes = new HashMap<>();
+    private final Map<Integer, Integer> rowById = new HashMap<>();
+
+    private final static int INITIAL_CAPACITY = 16;
+    /** Minimum number of removed rows before the rows are compacted */
+    private final static int COMPACTION_THRESHOLD = 1024;
+    /** Code of a missing room type, for arrangements without accommodation */
+    private final static byte NONE = -1;
+    /** Code of a criterion that isn't set, matching every row */
+    private final static int ANY = -2;
+
+    /**
+     * Constructs a column store containing the given arrangements.
+     *
+     * @param arrangements the arrangements to store.
+     */
+    public ArrangementColumnStore(List<Arrangement> arrangements) {
+        for (Arrangement arrangement : arrangements)
+            put(arrangement);
+    }
+
+    /**
+     * Appends an arrangement as a new row.
+     *
+     * @param arrangement the arrangement to add.
+     */
+    public void add(Arrangement arrangement) {
+        put(arrangement);
+    }
+
+    private void put(Arrangement arrangement) {
+        if (size == ids.length)
+            grow();
+
+        Accommodation accommodation = arrangement.getAccommodation();
+        int row = size++;
+        live[row] = true;
+        rowById.put(arrangement.getId(), row);
+
+        ids[row] = arrangement.getId();
+        totalPrices[row] = arrangement.calculateTotalPrice();
+        tripDays[row] = (int) arrangement.getTripDate().toEpochDay();
+        arrivalDays[row] = (int) arrangement.getArrivalDate().toEpochDay();
+        transports[row] = (byte) arrangement.getTransport().ordinal();
+        roomTypes[row] = accommodation == null ? NONE : (byte) accommodation.getRoomType().ordinal();
+        starReviews[row] = accommodation == null ? 0 : accommodation.getStarReview();
+        destinations[row] = destinationCodes.computeIfAbsent(arrangement.getDestination(), d -> destinationCodes.size());
+    }
+
+    /**
+     * Removes the row of an arrangement, keeping the other rows in insertion order.
+     *
+     * @param id the id of the arrangement.
+     * @return true if the arrangement had a row, false otherwise.
+     */
+    public boolean remove(int id) {
+        Integer row = rowById.remove(id);
+        if (row == null)
+            return false;
+
+        live[row] = false;
+        removed++;
+
+        if (removed > COMPACTION_THRESHOLD && removed > rowById.size())
+            compact();
+
+        return true;
+    }
+
+    /**
+     * Finds the arrangements matching a query on the given day.
+     *
+     * @param query the query to match.
+     * @param today the current date.
+     * @return the ids of the matching arrangements, in insertion order.
+     */
+    public int[] scan(ArrangementQuery query, LocalDate today) {
+        int earliestTrip = (int) query.earliestTripDate(today).toEpochDay();
+        int latestArrival = query.getArrivalDate() == null ? Integer.MAX_VALUE : (int) query.getArrivalDate().toEpochDay();
+        long maxPrice = query.getMaxPrice() == null ? Long.MAX_VALUE : query.getMaxPrice();
+        int transport = query.getTransport() == null ? ANY : query.getTransport().ordinal();
+        int roomType = query.getRoomType() == null ? ANY : query.getRoomType().ordinal();
+        boolean anyStarReview = query.getStarReview() == null;
+        int starReview = anyStarReview ? 0 : query.getStarReview();
+        int destination = ANY;
+
+        if (query.getDestination() != null) {
+            Integer code = destinationCodes.get(query.getDestination());
+            if (code == null)
+                return new int[0];
+            destination = code;
+        }
+
+        int[] rows = new int[size];
+        int count = scanRows(rows, earliestTrip, latestArrival, maxPrice, transport, roomType, anyStarReview, starReview, destination);
+
+        int[] matches = new int[count];
+        for (int i = 0; i < count; i++)
+            matches[i] = ids[rows[i]];
+
+        return matches;
+    }
+
+    /**
+     * Evaluates every criterion on every row without branching and writes the matching row numbers
+     * to the front of the given array. The loop only reads primitive arrays, so the JIT compiler can
+     * vectorize the comparisons.
+     *
+     * @return the number of matching rows.
+     */
+    private int scanRows(int[] rows, int earliestTrip, int latestArrival, long maxPrice, int transport, int roomType, boolean anyStarReview, int starReview, int destination) {
+        int count = 0;
+
+        for (int row = 0; row < size; row++) {
+            boolean match = live[row]
+                    & tripDays[row] >= earliestTrip
+                    & arrivalDays[row] <= latestArrival
+                    & totalPrices[row] <= maxPrice
+                    & (transport == ANY | transports[row] == transport)
+                    & (roomType == ANY | roomTypes[row] == roomType)
+                    & (anyStarReview | roomTypes[row] != NONE & starReviews[row] == starReview)
+                    & (destination == ANY | destinations[row] == destination);
+
+            rows[count] = row;
+            count += match ? 1 : 0;
+        }
+
+        return count;
+    }
+
+    /**
+     * Retrieves the number of arrangements stored.
+     *
+     * @return the number of arrangements.
+     */
+    public int size() {
+        return rowById.size();
+    }
+
+    /**
+     * Moves the remaining rows to the front, in insertion order, so removed rows aren't scanned anymore.
+     */
+    private void compact() {
+        int count = 0;
+
+        for (int row = 0; row < size; row++)
+            if (live[row]) {
+                ids[count] = ids[row];
+                totalPrices[count] = totalPrices[row];
+                tripDays[count] = tripDays[row];
+                arrivalDays[count] = arrivalDays[row];
+                transports[count] = transports[row];
+                roomTypes[count] = roomTypes[row];
+                starReviews[count] = starReviews[row];
+                destinations[count] = destinations[row];
+                live[count] = true;
+                rowById.put(ids[count], count);
+                count++;
+            }
+
+        Arrays.fill(live, count, size, false);
+        size = count;
+        removed = 0;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        live = Arrays.copyOf(live, capacity);
+        ids = Arrays.copyOf(ids, capacity);
+        totalPrices = Arrays.copyOf(totalPrices, capacity);
+        tripDays = Arrays.copyOf(tripDays, capacity);
+        arrivalDays = Arrays.copyOf(arrivalDays, capacity);
+        transports = Arrays.copyOf(transports, capacity);
+        roomTypes = Arrays.copyOf(roomTypes, capacity);
+        starReviews = Arrays.copyOf(starReviews, capacity);
+        destinations = Arrays.copyOf(destinations, capacity);
+    }
+}
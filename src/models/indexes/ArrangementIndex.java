@@ -0,0 +1,518 @@
+package models.indexes;
+
+import implementation.client.ArrangementQuery;
+import models.entities.Accommodation;
+import models.entities.Arrangement;
+import models.enums.ArrangementSort;
+import models.enums.RoomType;
+import models.enums.Transport;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * The ArrangementIndex class holds all arrangements together with search structures for filtering them.
+ * Every arrangement gets a slot in insertion order. Destination, transport, room type and star review are indexed
+ * as bitsets of slots, while total price, trip date and arrival date are kept in sorted sets of slots.
+ * A search intersects the bitsets of the requested facets, or walks the shortest requested range when no facet
+ * is set, and checks the remaining bounds against per-slot columns instead of the arrangement objects.
+ * The sorted sets, together with ones for star review and trip length, also serve as maintained sort orders,
+ * so sorting walks an order that already exists instead of comparing arrangements.
+ * A query without facets whose shortest range still covers most arrangements scans a column store of the
+ * arrangements instead, which is built on first use and kept up to date from then on.
+ */
+public class ArrangementIndex {
+    private Arrangement[] slots = new Arrangement[INITIAL_CAPACITY];
+    private long[] totalPrices = new long[INITIAL_CAPACITY];
+    private long[] tripDays = new long[INITIAL_CAPACITY];
+    private long[] arrivalDays = new long[INITIAL_CAPACITY];
+    private int[] starReviews = new int[INITIAL_CAPACITY];
+    private int slotCount;
+    private final BitSet live = new BitSet();
+    private final Map<Integer, Integer> slotById = new HashMap<>();
+
+    private final NavigableSet<Key> byPrice = new TreeSet<>();
+    private final NavigableSet<Key> byTripDate = new TreeSet<>();
+    private final NavigableSet<Key> byArrivalDate = new TreeSet<>();
+    private final NavigableSet<Key> byStarReviewOrder = new TreeSet<>();
+    private final NavigableSet<Key> byTripLength = new TreeSet<>();
+    private final Map<String, BitSet> byDestination = new HashMap<>();
+    private final Map<Transport, BitSet> byTransport = new EnumMap<>(Transport.class);
+    private final Map<RoomType, BitSet> byRoomType = new EnumMap<>(RoomType.class);
+    private final Map<Integer, BitSet> byStarReview = new HashMap<>();
+    private ArrangementColumnStore columns;
+
+    private final static int INITIAL_CAPACITY = 16;
+    /** Minimum number of freed slots before the slots are compacted */
+    private final static int COMPACTION_THRESHOLD = 1024;
+    /** Subsets smaller than the index divided by this factor are sorted directly instead of walking an order */
+    private final static int SMALL_SORT_FACTOR = 16;
+    /** Ranges covering more than the index divided by this factor are scanned in the column store instead of walked */
+    private final static int SCAN_FACTOR = 2;
+    /** Orders keys by descending value and then by ascending slot */
+    private final static Comparator<Key> DESCENDING = Comparator.<Key>comparingLong(key -> key.value).reversed().thenComparingInt(key -> key.slot);
+
+    /**
+     * Constructs an index containing the given arrangements.
+     *
+     * @param arrangements the arrangements to index.
+     */
+    public ArrangementIndex(List<Arrangement> arrangements) {
+        for (Arrangement arrangement : arrangements)
+            put(arrangement);
+    }
+
+    /**
+     * Adds an arrangement to the index.
+     *
+     * @param arrangement the arrangement to add.
+     * @return true if the arrangement was added, false if its id is already indexed.
+     */
+    public synchronized boolean add(Arrangement arrangement) {
+        if (!put(arrangement))
+            return false;
+
+        if (columns != null)
+            columns.add(arrangement);
+        return true;
+    }
+
+    private boolean put(Arrangement arrangement) {
+        if (slotById.containsKey(arrangement.getId()))
+            return false;
+
+        if (slotCount == slots.length)
+            grow();
+
+        int slot = slotCount++;
+        slots[slot] = arrangement;
+        totalPrices[slot] = arrangement.calculateTotalPrice();
+        tripDays[slot] = arrangement.getTripDate().toEpochDay();
+        arrivalDays[slot] = arrangement.getArrivalDate().toEpochDay();
+        starReviews[slot] = arrangement.getAccommodation() == null ? 0 : arrangement.getAccommodation().getStarReview();
+        live.set(slot);
+        slotById.put(arrangement.getId(), slot);
+
+        byPrice.add(new Key(totalPrices[slot], slot));
+        byTripDate.add(new Key(tripDays[slot], slot));
+        byArrivalDate.add(new Key(arrivalDays[slot], slot));
+        byStarReviewOrder.add(new Key(starReviews[slot], slot));
+        byTripLength.add(new Key(arrivalDays[slot] - tripDays[slot], slot));
+        facet(byDestination, arrangement.getDestination()).set(slot);
+        facet(byTransport, arrangement.getTransport()).set(slot);
+
+        Accommodation accommodation = arrangement.getAccommodation();
+        if (accommodation != null) {
+            facet(byRoomType, accommodation.getRoomType()).set(slot);
+            facet(byStarReview, accommodation.getStarReview()).set(slot);
+        }
+
+        return true;
+    }
+
+    /**
+     * Removes an arrangement from the index.
+     *
+     * @param arrangement the arrangement to remove.
+     * @return true if the arrangement was indexed, false otherwise.
+     */
+    public synchronized boolean remove(Arrangement arrangement) {
+        Integer slot = slotById.remove(arrangement.getId());
+        if (slot == null)
+            return false;
+
+        Arrangement indexed = slots[slot];
+        byPrice.remove(new Key(totalPrices[slot], slot));
+        byTripDate.remove(new Key(tripDays[slot], slot));
+        byArrivalDate.remove(new Key(arrivalDays[slot], slot));
+        byStarReviewOrder.remove(new Key(starReviews[slot], slot));
+        byTripLength.remove(new Key(arrivalDays[slot] - tripDays[slot], slot));
+        clearFacet(byDestination, indexed.getDestination(), slot);
+        clearFacet(byTransport, indexed.getTransport(), slot);
+
+        Accommodation accommodation = indexed.getAccommodation();
+        if (accommodation != null) {
+            clearFacet(byRoomType, accommodation.getRoomType(), slot);
+            clearFacet(byStarReview, accommodation.getStarReview(), slot);
+        }
+
+        slots[slot] = null;
+        live.clear(slot);
+
+        if (columns != null)
+            columns.remove(arrangement.getId());
+
+        int freed = slotCount - slotById.size();
+        if (freed > COMPACTION_THRESHOLD && freed > slotById.size())
+            compact();
+
+        return true;
+    }
+
+    /**
+     * Finds the arrangements matching a query on the given day.
+     *
+     * @param query the query to match.
+     * @param today the current date.
+     * @return the matching arrangements, in insertion order.
+     */
+    public synchronized List<Arrangement> search(ArrangementQuery query, LocalDate today) {
+        long earliestTrip = query.earliestTripDate(today).toEpochDay();
+        long latestArrival = query.getArrivalDate() == null ? Long.MAX_VALUE : query.getArrivalDate().toEpochDay();
+        long maxPrice = query.getMaxPrice() == null ? Long.MAX_VALUE : query.getMaxPrice();
+
+        List<BitSet> facets = new ArrayList<>();
+        if (query.getDestination() != null)
+            facets.add(byDestination.get(query.getDestination()));
+        if (query.getTransport() != null)
+            facets.add(byTransport.get(query.getTransport()));
+        if (query.getRoomType() != null)
+            facets.add(byRoomType.get(query.getRoomType()));
+        if (query.getStarReview() != null)
+            facets.add(byStarReview.get(query.getStarReview()));
+
+        if (facets.contains(null))
+            return Collections.emptyList();
+
+        BitSet matches = new BitSet(slotCount);
+
+        if (!facets.isEmpty()) {
+            facets.sort(Comparator.comparingInt(BitSet::cardinality));
+            BitSet candidates = (BitSet) facets.get(0).clone();
+            for (int i = 1; i < facets.size() && !candidates.isEmpty(); i++)
+                candidates.and(facets.get(i));
+
+            for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1))
+                if (isInBounds(slot, earliestTrip, latestArrival, maxPrice))
+                    matches.set(slot);
+        } else {
+            List<NavigableSet<Key>> ranges = dateRanges(query, earliestTrip, latestArrival);
+            if (query.getMaxPrice() != null)
+                ranges.add(byPrice.headSet(new Key(maxPrice, Integer.MAX_VALUE), true));
+
+            NavigableSet<Key> range = shortest(ranges);
+            if (isLargerThan(range, slotById.size() / SCAN_FACTOR))
+                return scan(query, today);
+
+            for (Key key : range)
+                if (isInBounds(key.slot, earliestTrip, latestArrival, maxPrice))
+                    matches.set(key.slot);
+        }
+
+        return collect(matches);
+    }
+
+    /**
+     * Finds the arrangements matching a query on the given day with a scan of the column store,
+     * building the store on first use. Arrangement objects are looked up only for the matching rows.
+     */
+    private List<Arrangement> scan(ArrangementQuery query, LocalDate today) {
+        if (columns == null)
+            columns = new ArrangementColumnStore(getAll());
+
+        int[] ids = columns.scan(query, today);
+        List<Arrangement> result = new ArrayList<>(ids.length);
+        for (int id : ids)
+            result.add(slots[slotById.get(id)]);
+
+        return result;
+    }
+
+    /**
+     * Finds the arrangements matching a query on the given day and counts, in the same pass,
+     * how many arrangements every transport, room type, star review and price bucket would return.
+     * The pass covers the arrangements within the destination and date criteria, since the
+     * facet counts must ignore each facet's own criterion.
+     *
+     * @param query the query to match.
+     * @param today the current date.
+     * @return the matching arrangements, in insertion order, and the facet counts.
+     */
+    public synchronized ArrangementSearchResult searchWithFacets(ArrangementQuery query, LocalDate today) {
+        long earliestTrip = query.earliestTripDate(today).toEpochDay();
+        long latestArrival = query.getArrivalDate() == null ? Long.MAX_VALUE : query.getArrivalDate().toEpochDay();
+        long maxPrice = query.getMaxPrice() == null ? Long.MAX_VALUE : query.getMaxPrice();
+
+        FacetCounts counts = new FacetCounts();
+        BitSet matches = new BitSet(slotCount);
+
+        if (query.getDestination() != null) {
+            BitSet destination = byDestination.get(query.getDestination());
+            if (destination == null)
+                return new ArrangementSearchResult(Collections.emptyList(), counts);
+
+            for (int slot = destination.nextSetBit(0); slot >= 0; slot = destination.nextSetBit(slot + 1))
+                if (isInDates(slot, earliestTrip, latestArrival))
+                    tally(slot, query, maxPrice, matches, counts);
+        } else {
+            for (Key key : shortest(dateRanges(query, earliestTrip, latestArrival)))
+                if (isInDates(key.slot, earliestTrip, latestArrival))
+                    tally(key.slot, query, maxPrice, matches, counts);
+        }
+
+        return new ArrangementSearchResult(collect(matches), counts);
+    }
+
+    /**
+     * Retrieves the ranges of the trip date order and, if the query sets an arrival date, of the arrival date order
+     * that contain the arrangements within the date criteria.
+     */
+    private List<NavigableSet<Key>> dateRanges(ArrangementQuery query, long earliestTrip, long latestArrival) {
+        List<NavigableSet<Key>> ranges = new ArrayList<>();
+        ranges.add(byTripDate.tailSet(new Key(earliestTrip, -1), true));
+        if (query.getArrivalDate() != null)
+            ranges.add(byArrivalDate.headSet(new Key(latestArrival, Integer.MAX_VALUE), true));
+        return ranges;
+    }
+
+    /**
+     * Counts an arrangement within the destination and date criteria towards the facets whose
+     * other criteria it matches, and marks it as a match if it matches all of them.
+     */
+    private void tally(int slot, ArrangementQuery query, long maxPrice, BitSet matches, FacetCounts counts) {
+        Arrangement arrangement = slots[slot];
+        Accommodation accommodation = arrangement.getAccommodation();
+
+        boolean transport = query.getTransport() == null || arrangement.getTransport() == query.getTransport();
+        boolean roomType = query.getRoomType() == null || accommodation != null && accommodation.getRoomType() == query.getRoomType();
+        boolean starReview = query.getStarReview() == null || accommodation != null && accommodation.getStarReview() == query.getStarReview();
+        boolean price = totalPrices[slot] <= maxPrice;
+
+        if (transport && roomType && starReview && price)
+            matches.set(slot);
+
+        if (roomType && starReview && price)
+            counts.countTransport(arrangement.getTransport());
+        if (transport && roomType && starReview)
+            counts.countPrice(totalPrices[slot]);
+
+        if (accommodation != null) {
+            if (transport && starReview && price)
+                counts.countRoomType(accommodation.getRoomType());
+            if (transport && roomType && price)
+                counts.countStarReview(accommodation.getStarReview());
+        }
+    }
+
+    /**
+     * Sorts arrangements of this index by a maintained sort order. Arrangements with equal keys are ordered
+     * by insertion in both directions, so descending order walks the values in reverse but each run of equal values forward.
+     * Arrangements that aren't in the index are placed after the sorted ones.
+     *
+     * @param arrangements the arrangements to sort, typically the result of a search.
+     * @param sort         the sort key.
+     * @param descending   true to sort in descending order, false for ascending order.
+     * @return a new list with the arrangements in sorted order.
+     */
+    public synchronized List<Arrangement> sort(List<Arrangement> arrangements, ArrangementSort sort, boolean descending) {
+        BitSet selected = new BitSet(slotCount);
+        List<Arrangement> unindexed = new ArrayList<>();
+
+        for (Arrangement arrangement : arrangements) {
+            Integer slot = slotById.get(arrangement.getId());
+            if (slot != null && slots[slot] == arrangement)
+                selected.set(slot);
+            else
+                unindexed.add(arrangement);
+        }
+
+        int count = selected.cardinality();
+        List<Arrangement> sorted = new ArrayList<>(arrangements.size());
+
+        if (count < slotById.size() / SMALL_SORT_FACTOR) {
+            Key[] keys = new Key[count];
+            int i = 0;
+            for (int slot = selected.nextSetBit(0); slot >= 0; slot = selected.nextSetBit(slot + 1))
+                keys[i++] = new Key(sortKey(sort, slot), slot);
+
+            Arrays.sort(keys, descending ? DESCENDING : Comparator.naturalOrder());
+            for (Key key : keys)
+                sorted.add(slots[key.slot]);
+        } else if (descending) {
+            NavigableSet<Key> order = sortOrder(sort);
+            Key last = order.isEmpty() ? null : order.last();
+
+            while (last != null && sorted.size() < count) {
+                Key first = new Key(last.value, Integer.MIN_VALUE);
+                for (Key key : order.subSet(first, true, last, true))
+                    if (selected.get(key.slot))
+                        sorted.add(slots[key.slot]);
+                last = order.lower(first);
+            }
+        } else {
+            for (Key key : sortOrder(sort))
+                if (selected.get(key.slot)) {
+                    sorted.add(slots[key.slot]);
+                    if (sorted.size() == count)
+                        break;
+                }
+        }
+
+        sorted.addAll(unindexed);
+        return sorted;
+    }
+
+    private NavigableSet<Key> sortOrder(ArrangementSort sort) {
+        return switch (sort) {
+            case TRIP_DATE -> byTripDate;
+            case PRICE -> byPrice;
+            case STAR_REVIEW -> byStarReviewOrder;
+            case TRIP_LENGTH -> byTripLength;
+        };
+    }
+
+    private long sortKey(ArrangementSort sort, int slot) {
+        return switch (sort) {
+            case TRIP_DATE -> tripDays[slot];
+            case PRICE -> totalPrices[slot];
+            case STAR_REVIEW -> starReviews[slot];
+            case TRIP_LENGTH -> arrivalDays[slot] - tripDays[slot];
+        };
+    }
+
+    /**
+     * Retrieves all arrangements.
+     *
+     * @return a list of all arrangements, in insertion order.
+     */
+    public synchronized List<Arrangement> getAll() {
+        List<Arrangement> arrangements = new ArrayList<>(slotById.size());
+        for (int slot = live.nextSetBit(0); slot >= 0; slot = live.nextSetBit(slot + 1))
+            arrangements.add(slots[slot]);
+        return arrangements;
+    }
+
+    /**
+     * Retrieves the number of arrangements.
+     *
+     * @return the number of arrangements.
+     */
+    public synchronized int size() {
+        return slotById.size();
+    }
+
+    private boolean isInBounds(int slot, long earliestTrip, long latestArrival, long maxPrice) {
+        return isInDates(slot, earliestTrip, latestArrival) && totalPrices[slot] <= maxPrice;
+    }
+
+    private boolean isInDates(int slot, long earliestTrip, long latestArrival) {
+        return tripDays[slot] >= earliestTrip && arrivalDays[slot] <= latestArrival;
+    }
+
+    private List<Arrangement> collect(BitSet matches) {
+        List<Arrangement> result = new ArrayList<>(matches.cardinality());
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1))
+            result.add(slots[slot]);
+        return result;
+    }
+
+    private static boolean isLargerThan(NavigableSet<Key> range, int size) {
+        Iterator<Key> iterator = range.iterator();
+        for (int i = 0; i <= size; i++) {
+            if (!iterator.hasNext())
+                return false;
+            iterator.next();
+        }
+        return true;
+    }
+
+    /**
+     * Finds the range with the fewest entries by walking all ranges in lockstep,
+     * so the cost is bounded by the length of the shortest one.
+     *
+     * @param ranges the ranges to compare.
+     * @return the shortest range.
+     */
+    private static NavigableSet<Key> shortest(List<NavigableSet<Key>> ranges) {
+        if (ranges.size() == 1)
+            return ranges.get(0);
+
+        List<Iterator<Key>> iterators = new ArrayList<>(ranges.size());
+        for (NavigableSet<Key> range : ranges)
+            iterators.add(range.iterator());
+
+        while (true)
+            for (int i = 0; i < iterators.size(); i++) {
+                if (!iterators.get(i).hasNext())
+                    return ranges.get(i);
+                iterators.get(i).next();
+            }
+    }
+
+    private static <K> BitSet facet(Map<K, BitSet> facets, K key) {
+        return facets.computeIfAbsent(key, k -> new BitSet());
+    }
+
+    private static <K> void clearFacet(Map<K, BitSet> facets, K key, int slot) {
+        BitSet bits = facets.get(key);
+        if (bits == null)
+            return;
+
+        bits.clear(slot);
+        if (bits.isEmpty())
+            facets.remove(key);
+    }
+
+    private void grow() {
+        int capacity = slots.length * 2;
+        slots = Arrays.copyOf(slots, capacity);
+        totalPrices = Arrays.copyOf(totalPrices, capacity);
+        tripDays = Arrays.copyOf(tripDays, capacity);
+        arrivalDays = Arrays.copyOf(arrivalDays, capacity);
+        starReviews = Arrays.copyOf(starReviews, capacity);
+    }
+
+    /**
+     * Reassigns slots to the remaining arrangements so freed slots don't keep growing the bitsets.
+     */
+    private void compact() {
+        List<Arrangement> remaining = getAll();
+
+        slotCount = 0;
+        Arrays.fill(slots, null);
+        live.clear();
+        slotById.clear();
+        byPrice.clear();
+        byTripDate.clear();
+        byArrivalDate.clear();
+        byStarReviewOrder.clear();
+        byTripLength.clear();
+        byDestination.clear();
+        byTransport.clear();
+        byRoomType.clear();
+        byStarReview.clear();
+
+        for (Arrangement arrangement : remaining)
+            put(arrangement);
+    }
+
+    /**
+     * A sort key of a slot, ordered by value and then by slot.
+     */
+    private static class Key implements Comparable<Key> {
+        private final long value;
+        private final int slot;
+
+        private Key(long value, int slot) {
+            this.value = value;
+            this.slot = slot;
+        }
+
+        @Override
+        public int compareTo(Key other) {
+            int cmp = Long.compare(value, other.value);
+            return cmp != 0 ? cmp : Integer.compare(slot, other.slot);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package models.indexes;
+
+import models.entities.Arrangement;
+
+import java.util.List;
+
+/**
+ * The ArrangementSearchResult class holds the arrangements matching a query together with the facet counts
+ * computed in the same pass.
+ */
+public class ArrangementSearchResult {
+    private final List<Arrangement> arrangements;
+    private final FacetCounts facetCounts;
+
+    /**
+     * Constructs a search result.
+     *
+     * @param arrangements the matching arrangements.
+     * @param facetCounts  the facet counts of the query.
+     */
+    public ArrangementSearchResult(List<Arrangement> arrangements, FacetCounts facetCounts) {
+        this.arrangements = arrangements;
+        this.facetCounts = facetCounts;
+    }
+
+    /**
+     * Retrieves the matching arrangements.
+     *
+     * @return the matching arrangements, in insertion order.
+     */
+    public List<Arrangement> getArrangements() {
+        return arrangements;
+    }
+
+    /**
+     * Retrieves the facet counts of the query.
+     *
+     * @return the facet counts.
+     */
+    public FacetCounts getFacetCounts() {
+        return facetCounts;
+    }
+}
@@ -0,0 +1,113 @@
+package models.indexes;
+
+import models.entities.BankAccount;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The BankAccountIndex class holds all bank accounts, indexed by account number and by JMBG.
+ * It also keeps track of the agency bank account, so none of these lookups scans the accounts.
+ */
+public class BankAccountIndex {
+    private final Map<String, BankAccount> byAccountNumber = new ConcurrentHashMap<>();
+    private final Map<String, List<BankAccount>> byJmbg = new ConcurrentHashMap<>();
+    private volatile BankAccount agencyBankAccount;
+
+    /**
+     * Constructs an index containing the given bank accounts.
+     *
+     * @param bankAccounts the bank accounts to index.
+     */
+    public BankAccountIndex(List<BankAccount> bankAccounts) {
+        for (BankAccount bankAccount : bankAccounts)
+            put(bankAccount);
+    }
+
+    /**
+     * Adds a bank account to the index.
+     *
+     * @param bankAccount the bank account to add.
+     * @return true if the account was added, false if its account number is already indexed.
+     */
+    public synchronized boolean add(BankAccount bankAccount) {
+        return put(bankAccount);
+    }
+
+    private boolean put(BankAccount bankAccount) {
+        if (byAccountNumber.putIfAbsent(bankAccount.getAccountNumber(), bankAccount) != null)
+            return false;
+
+        byJmbg.computeIfAbsent(bankAccount.getJmbg(), jmbg -> new CopyOnWriteArrayList<>()).add(bankAccount);
+
+        if (agencyBankAccount == null && bankAccount.isAgencyBankAccount())
+            agencyBankAccount = bankAccount;
+
+        return true;
+    }
+
+    /**
+     * Retrieves the bank account with the given account number.
+     *
+     * @param accountNumber the account number.
+     * @return the bank account, or null if there is none.
+     */
+    public BankAccount getByAccountNumber(String accountNumber) {
+        return byAccountNumber.get(accountNumber);
+    }
+
+    /**
+     * Retrieves all bank accounts belonging to the given JMBG.
+     *
+     * @param jmbg the JMBG.
+     * @return an unmodifiable list of bank accounts, empty if there are none.
+     */
+    public List<BankAccount> getByJmbg(String jmbg) {
+        List<BankAccount> accounts = byJmbg.get(jmbg);
+        return accounts == null ? Collections.emptyList() : Collections.unmodifiableList(accounts);
+    }
+
+    /**
+     * Checks if a bank account with the given account number exists.
+     *
+     * @param accountNumber the account number.
+     * @return true if the account exists, false otherwise.
+     */
+    public boolean containsAccountNumber(String accountNumber) {
+        return byAccountNumber.containsKey(accountNumber);
+    }
+
+    /**
+     * Checks if the bank account with the given account number belongs to the given JMBG.
+     *
+     * @param accountNumber the account number.
+     * @param jmbg          the JMBG.
+     * @return true if the account exists and belongs to the JMBG, false otherwise.
+     */
+    public boolean isOwnedBy(String accountNumber, String jmbg) {
+        BankAccount bankAccount = byAccountNumber.get(accountNumber);
+        return bankAccount != null && bankAccount.isJmbgMatching(jmbg);
+    }
+
+    /**
+     * Retrieves the bank account of the agency.
+     *
+     * @return the agency bank account, or null if there is none.
+     */
+    public BankAccount getAgencyBankAccount() {
+        return agencyBankAccount;
+    }
+
+    /**
+     * Retrieves all bank accounts.
+     *
+     * @return a list of all bank accounts.
+     */
+    public List<BankAccount> getBankAccounts() {
+        return new ArrayList<>(byAccountNumber.values());
+    }
+}
@@ -0,0 +1,160 @@
+package models.indexes;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The DeadlineWheel class schedules items on days, as a hierarchical timing wheel.
+ * The first level has one slot per day of the current block of days, the second level has one slot per block
+ * for the blocks that follow, and items further ahead wait in an overflow map. When the wheel reaches a new block,
+ * the slot of that block is spread over the day slots, so scheduling, cancelling and polling an item take constant time.
+ * Items scheduled on a day that was already polled are due on the next poll.
+ * The wheel isn't synchronized; ReservationIndex only accesses it while holding its own lock.
+ *
+ * @param <T> the type of the scheduled items.
+ */
+public class DeadlineWheel<T> {
+    private final List<Set<T>> days = slots();
+    private final List<Set<T>> blocks = slots();
+    private final Map<Long, Set<T>> overflow = new HashMap<>();
+    private final Map<T, Placement<T>> placements = new HashMap<>();
+    private long cursor;
+
+    /** Number of slots on each level, and the number of days in a block. */
+    private final static int SLOTS = 64;
+
+    /**
+     * Constructs an empty wheel whose first unpolled day is the given day.
+     *
+     * @param start the first day to poll.
+     */
+    public DeadlineWheel(LocalDate start) {
+        cursor = start.toEpochDay();
+    }
+
+    /**
+     * Schedules an item on a day, replacing its previous schedule.
+     *
+     * @param item the item to schedule.
+     * @param day  the day on which the item is due.
+     */
+    public void schedule(T item, LocalDate day) {
+        cancel(item);
+        place(item, Math.max(day.toEpochDay(), cursor));
+    }
+
+    /**
+     * Removes an item from the wheel.
+     *
+     * @param item the item to remove.
+     * @return true if the item was scheduled, false otherwise.
+     */
+    public boolean cancel(T item) {
+        Placement<T> placement = placements.remove(item);
+        if (placement == null)
+            return false;
+
+        placement.slot.remove(item);
+        if (placement.slot.isEmpty())
+            overflow.remove(Math.floorDiv(placement.day, SLOTS), placement.slot);
+        return true;
+    }
+
+    /**
+     * Removes and returns the items due on or before the given day.
+     *
+     * @param today the last day to poll.
+     * @return the due items, ordered by day.
+     */
+    public List<T> poll(LocalDate today) {
+        List<T> due = new ArrayList<>();
+        long last = today.toEpochDay();
+
+        for (; cursor <= last; cursor++) {
+            if (placements.isEmpty()) {
+                cursor = last + 1;
+                break;
+            }
+
+            if (Math.floorMod(cursor, SLOTS) == 0)
+                cascade(Math.floorDiv(cursor, SLOTS));
+
+            Set<T> slot = days.get(Math.floorMod(cursor, SLOTS));
+            for (T item : slot)
+                placements.remove(item);
+            due.addAll(slot);
+            slot.clear();
+        }
+
+        return due;
+    }
+
+    /**
+     * Retrieves the number of scheduled items.
+     *
+     * @return the number of scheduled items.
+     */
+    public int size() {
+        return placements.size();
+    }
+
+    /**
+     * Moves the items of a block that was just reached to the day slots, and the block that entered
+     * the range of the second level from the overflow map to its block slot.
+     *
+     * @param block the block that was reached.
+     */
+    private void cascade(long block) {
+        Set<T> reached = blocks.get(Math.floorMod(block, SLOTS));
+        List<T> items = new ArrayList<>(reached);
+        reached.clear();
+        for (T item : items)
+            place(item, placements.get(item).day);
+
+        Set<T> entering = overflow.remove(block + SLOTS - 1);
+        if (entering != null)
+            for (T item : entering)
+                put(item, placements.get(item).day, blocks.get(Math.floorMod(block + SLOTS - 1, SLOTS)));
+    }
+
+    private void place(T item, long day) {
+        long ahead = Math.floorDiv(day, SLOTS) - Math.floorDiv(cursor, SLOTS);
+
+        if (ahead == 0)
+            put(item, day, days.get(Math.floorMod(day, SLOTS)));
+        else if (ahead < SLOTS)
+            put(item, day, blocks.get(Math.floorMod(Math.floorDiv(day, SLOTS), SLOTS)));
+        else
+            put(item, day, overflow.computeIfAbsent(Math.floorDiv(day, SLOTS), b -> new LinkedHashSet<>()));
+    }
+
+    private void put(T item, long day, Set<T> slot) {
+        slot.add(item);
+        placements.put(item, new Placement<>(day, slot));
+    }
+
+    private static <T> List<Set<T>> slots() {
+        List<Set<T>> slots = new ArrayList<>(SLOTS);
+        for (int i = 0; i < SLOTS; i++)
+            slots.add(new LinkedHashSet<>());
+        return slots;
+    }
+
+    /**
+     * The day an item is due on and the slot it currently waits in.
+     */
+    private static class Placement<T> {
+        private final long day;
+        private final Set<T> slot;
+
+        private Placement(long day, Set<T> slot) {
+            this.day = day;
+            this.slot = slot;
+        }
+    }
+}
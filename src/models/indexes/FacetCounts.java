@@ -0,0 +1,91 @@
+package models.indexes;
+
+import models.enums.RoomType;
+import models.enums.Transport;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The FacetCounts class holds, for every filter option, how many arrangements the current query would return
+ * if that option were chosen instead of the one currently set in its own filter. Each count ignores the criterion
+ * of its own facet and applies all the others, so options of a facet that is already set still get counts.
+ */
+public class FacetCounts {
+    private final int[] transportCounts = new int[Transport.values().length];
+    private final int[] roomTypeCounts = new int[RoomType.values().length];
+    private final Map<Integer, Integer> starReviewCounts = new TreeMap<>();
+    private final int[] priceBucketCounts = new int[PRICE_BUCKET_BOUNDS.length + 1];
+
+    /** Upper bounds of the price buckets in cents; the last bucket holds prices above the last bound */
+    public final static long[] PRICE_BUCKET_BOUNDS = {25_000, 50_000, 100_000, 250_000};
+
+    void countTransport(Transport transport) {
+        transportCounts[transport.ordinal()]++;
+    }
+
+    void countRoomType(RoomType roomType) {
+        roomTypeCounts[roomType.ordinal()]++;
+    }
+
+    void countStarReview(int starReview) {
+        starReviewCounts.merge(starReview, 1, Integer::sum);
+    }
+
+    void countPrice(long totalPrice) {
+        priceBucketCounts[priceBucket(totalPrice)]++;
+    }
+
+    /**
+     * Finds the price bucket of a total price.
+     *
+     * @param totalPrice the total price, in cents.
+     * @return the index of the bucket, between 0 and the number of bounds.
+     */
+    public static int priceBucket(long totalPrice) {
+        int bucket = 0;
+        while (bucket < PRICE_BUCKET_BOUNDS.length && totalPrice > PRICE_BUCKET_BOUNDS[bucket])
+            bucket++;
+        return bucket;
+    }
+
+    /**
+     * Retrieves the number of matching arrangements with the given transport.
+     *
+     * @param transport the transport.
+     * @return the number of arrangements.
+     */
+    public int getTransportCount(Transport transport) {
+        return transportCounts[transport.ordinal()];
+    }
+
+    /**
+     * Retrieves the number of matching arrangements with the given room type.
+     *
+     * @param roomType the room type.
+     * @return the number of arrangements.
+     */
+    public int getRoomTypeCount(RoomType roomType) {
+        return roomTypeCounts[roomType.ordinal()];
+    }
+
+    /**
+     * Retrieves the number of matching arrangements per star review, for the star reviews that occur.
+     *
+     * @return an unmodifiable map from star review to number of arrangements, ordered by star review.
+     */
+    public Map<Integer, Integer> getStarReviewCounts() {
+        return Collections.unmodifiableMap(starReviewCounts);
+    }
+
+    /**
+     * Retrieves the number of matching arrangements in the given price bucket.
+     *
+     * @param bucket the index of the bucket.
+     * @return the number of arrangements.
+     */
+    public int getPriceBucketCount(int bucket) {
+        return priceBucketCounts[bucket];
+    }
+}
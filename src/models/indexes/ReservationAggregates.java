@@ -0,0 +1,147 @@
+package models.indexes;
+
+import models.entities.Arrangement;
+import models.entities.Client;
+import models.entities.Reservation;
+import models.enums.ReservationType;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The ReservationAggregates class keeps running totals over reservations: the total amount outstanding,
+ * the amount spent and the amount remaining per client, and the amount paid in per arrangement.
+ * Every reservation contributes to the totals according to its type and paid amount. When either changes,
+ * the old contribution is subtracted and the new one added, so the totals are updated in constant time.
+ * The totals are kept in cents, so they match a recomputation exactly unless an update was missed.
+ * The aggregates aren't synchronized; ReservationIndex only accesses them while holding its own lock.
+ */
+public class ReservationAggregates {
+    private long totalOutstanding;
+    private final Map<Integer, Long> spentByClient = new HashMap<>();
+    private final Map<Integer, Long> remainingByClient = new HashMap<>();
+    private final Map<Integer, Long> paidInByArrangement = new HashMap<>();
+
+    /**
+     * Computes the aggregates of the given reservations from scratch.
+     *
+     * @param reservations the reservations.
+     * @return the aggregates of the reservations.
+     */
+    public static ReservationAggregates of(Collection<Reservation> reservations) {
+        ReservationAggregates aggregates = new ReservationAggregates();
+        for (Reservation reservation : reservations)
+            aggregates.add(reservation);
+        return aggregates;
+    }
+
+    /**
+     * Adds the contribution of a reservation in its current state.
+     *
+     * @param reservation the reservation.
+     */
+    public void add(Reservation reservation) {
+        apply(reservation, reservation.getReservationType(), reservation.getPaidAmount(), 1);
+    }
+
+    /**
+     * Subtracts the contribution a reservation had in an earlier state.
+     *
+     * @param reservation the reservation.
+     * @param type        the type of the reservation in that state.
+     * @param paidAmount  the paid amount of the reservation in that state.
+     */
+    public void remove(Reservation reservation, ReservationType type, long paidAmount) {
+        apply(reservation, type, paidAmount, -1);
+    }
+
+    /**
+     * Adds or subtracts the contribution of a reservation. A canceled reservation that wasn't canceled by the client
+     * counts half the price as spent, an active reservation counts its unpaid amount as remaining, and a reservation
+     * that isn't canceled counts its paid amount as paid in for its arrangement.
+     */
+    private void apply(Reservation reservation, ReservationType type, long paidAmount, int sign) {
+        long spent = type == ReservationType.CANCELED && paidAmount != 0 ? reservation.getArrangement().getHalfPrice() : paidAmount;
+        long remaining = type == ReservationType.ACTIVE ? reservation.getTotalPrice() - paidAmount : 0;
+        long paidIn = type != ReservationType.CANCELED ? paidAmount : 0;
+
+        totalOutstanding += sign * remaining;
+        spentByClient.merge(reservation.getClient().getId(), sign * spent, Long::sum);
+        remainingByClient.merge(reservation.getClient().getId(), sign * remaining, Long::sum);
+        paidInByArrangement.merge(reservation.getArrangement().getId(), sign * paidIn, Long::sum);
+    }
+
+    /**
+     * Drops the total paid in for an arrangement whose reservations were all removed.
+     *
+     * @param arr the arrangement.
+     */
+    public void clearArrangement(Arrangement arr) {
+        paidInByArrangement.remove(arr.getId());
+    }
+
+    /**
+     * Retrieves the total amount still to be paid for active reservations.
+     *
+     * @return the total amount outstanding.
+     */
+    public long getTotalOutstanding() {
+        return totalOutstanding;
+    }
+
+    /**
+     * Retrieves the amount a client spent on reservations.
+     *
+     * @param client the client.
+     * @return the amount spent by the client.
+     */
+    public long getSpent(Client client) {
+        return spentByClient.getOrDefault(client.getId(), 0L);
+    }
+
+    /**
+     * Retrieves the amount a client still has to pay for active reservations.
+     *
+     * @param client the client.
+     * @return the amount remaining for the client.
+     */
+    public long getRemaining(Client client) {
+        return remainingByClient.getOrDefault(client.getId(), 0L);
+    }
+
+    /**
+     * Retrieves the amount paid in for reservations of an arrangement that aren't canceled.
+     *
+     * @param arr the arrangement.
+     * @return the amount paid in for the arrangement.
+     */
+    public long getPaidIn(Arrangement arr) {
+        return paidInByArrangement.getOrDefault(arr.getId(), 0L);
+    }
+
+    /**
+     * Calculates the largest difference between any total of these aggregates and the same total of other aggregates.
+     *
+     * @param other the aggregates to compare with.
+     * @return the largest absolute difference, in cents.
+     */
+    public long drift(ReservationAggregates other) {
+        long drift = Math.abs(totalOutstanding - other.totalOutstanding);
+        drift = Math.max(drift, drift(spentByClient, other.spentByClient));
+        drift = Math.max(drift, drift(remainingByClient, other.remainingByClient));
+        return Math.max(drift, drift(paidInByArrangement, other.paidInByArrangement));
+    }
+
+    private static long drift(Map<Integer, Long> totals, Map<Integer, Long> otherTotals) {
+        Set<Integer> ids = new HashSet<>(totals.keySet());
+        ids.addAll(otherTotals.keySet());
+
+        long drift = 0;
+        for (int id : ids)
+            drift = Math.max(drift, Math.abs(totals.getOrDefault(id, 0L) - otherTotals.getOrDefault(id, 0L)));
+        return drift;
+    }
+}
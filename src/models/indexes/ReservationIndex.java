@@ -0,0 +1,381 @@
+package models.indexes;
+
+import implementation.general.AgencyClock;
+import interfaces.ReservationStatusListener;
+import models.entities.Arrangement;
+import models.entities.Client;
+import models.entities.Reservation;
+import models.enums.ReservationType;
+import models.enums.RevenueDimension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The ReservationIndex class holds all reservations, grouped by client and by arrangement.
+ * A set of (client, arrangement) keys answers whether a client already reserved an arrangement,
+ * so looking up the reservations of one client or one arrangement doesn't scan all reservations.
+ * Reservations are also grouped by status, and scheduled on the date of their next status change in a timing wheel.
+ * Reads bring statuses up to the current date first, which re-evaluates only the reservations due for a change.
+ * Reservations re-evaluated this way are kept as a due batch until the deadline scheduler takes them.
+ * Running totals of the amounts spent, remaining and paid in, and the revenue cube, are kept up to date with every change.
+ */
+public final class ReservationIndex implements ReservationStatusListener {
+    private final List<Reservation> reservations = new ArrayList<>();
+    private Reservation[] snapshot;
+    private final Map<Integer, List<Reservation>> byClient = new ConcurrentHashMap<>();
+    private final Map<Integer, List<Reservation>> byArrangement = new ConcurrentHashMap<>();
+    private final Set<Long> reservedKeys = ConcurrentHashMap.newKeySet();
+    private final Map<ReservationType, Set<Reservation>> byStatus = new EnumMap<>(ReservationType.class);
+    private final DeadlineWheel<Reservation> statusChanges = new DeadlineWheel<>(AgencyClock.today());
+    private final Set<Reservation> dueBatch = new LinkedHashSet<>();
+    private ReservationAggregates aggregates = new ReservationAggregates();
+    private final RevenueCube revenue = new RevenueCube();
+    private volatile LocalDate evaluatedOn;
+
+    /**
+     * Constructs an index containing the given reservations.
+     *
+     * @param reservations the reservations to index.
+     */
+    public ReservationIndex(List<Reservation> reservations) {
+        for (ReservationType type : ReservationType.values())
+            byStatus.put(type, new LinkedHashSet<>());
+
+        for (Reservation reservation : reservations)
+            put(reservation);
+
+        evaluatedOn = AgencyClock.today();
+    }
+
+    /**
+     * Adds a reservation to the index.
+     *
+     * @param reservation the reservation to add.
+     */
+    public synchronized void add(Reservation reservation) {
+        put(reservation);
+    }
+
+    private void put(Reservation reservation) {
+        int clientID = reservation.getClient().getId();
+        int arrangementID = reservation.getArrangement().getId();
+
+        reservations.add(reservation);
+        snapshot = null;
+        byClient.computeIfAbsent(clientID, id -> new CopyOnWriteArrayList<>()).add(reservation);
+        byArrangement.computeIfAbsent(arrangementID, id -> new CopyOnWriteArrayList<>()).add(reservation);
+        reservedKeys.add(key(clientID, arrangementID));
+
+        byStatus.get(reservation.getReservationType()).add(reservation);
+        scheduleStatusChange(reservation);
+        aggregates.add(reservation);
+        revenue.add(reservation);
+        reservation.setStatusListener(this);
+    }
+
+    /**
+     * Removes all reservations for the given arrangement.
+     *
+     * @param arr the arrangement whose reservations are removed.
+     * @return the removed reservations.
+     */
+    public synchronized List<Reservation> removeByArrangement(Arrangement arr) {
+        List<Reservation> removed = byArrangement.remove(arr.getId());
+        if (removed == null)
+            return Collections.emptyList();
+
+        Set<Reservation> removedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        removedSet.addAll(removed);
+        reservations.removeIf(removedSet::contains);
+        snapshot = null;
+
+        for (Reservation reservation : removed) {
+            int clientID = reservation.getClient().getId();
+            List<Reservation> clientReservations = byClient.get(clientID);
+
+            if (clientReservations != null) {
+                clientReservations.remove(reservation);
+                if (clientReservations.isEmpty())
+                    byClient.remove(clientID);
+            }
+            reservedKeys.remove(key(clientID, arr.getId()));
+
+            reservation.setStatusListener(null);
+            byStatus.get(reservation.getReservationType()).remove(reservation);
+            statusChanges.cancel(reservation);
+            dueBatch.remove(reservation);
+            aggregates.remove(reservation, reservation.getReservationType(), reservation.getPaidAmount());
+            revenue.remove(reservation, reservation.getReservationType(), reservation.getPaidAmount());
+        }
+        aggregates.clearArrangement(arr);
+
+        return removed;
+    }
+
+    /**
+     * Moves a reservation to the groups of its new status and replaces its contribution to the running totals.
+     * A lower paid amount means the difference was refunded to the client.
+     *
+     * @param reservation        the reservation whose status changed.
+     * @param previousType       the type before the change.
+     * @param previousPaidAmount the paid amount before the change.
+     */
+    @Override
+    public synchronized void statusChanged(Reservation reservation, ReservationType previousType, long previousPaidAmount) {
+        byStatus.get(previousType).remove(reservation);
+        byStatus.get(reservation.getReservationType()).add(reservation);
+
+        scheduleStatusChange(reservation);
+
+        aggregates.remove(reservation, previousType, previousPaidAmount);
+        aggregates.add(reservation);
+
+        revenue.remove(reservation, previousType, previousPaidAmount);
+        revenue.add(reservation);
+        if (reservation.getPaidAmount() < previousPaidAmount)
+            revenue.addRefund(reservation, previousPaidAmount - reservation.getPaidAmount());
+    }
+
+    /**
+     * Changes the paid amount of a reservation while holding the lock of the index, so its status is re-evaluated
+     * and its groups and running totals are updated as one step with respect to the deadline scheduler.
+     * All paid amount changes of indexed reservations have to go through this method.
+     *
+     * @param reservation the reservation.
+     * @param paidAmount  the new paid amount, in cents.
+     */
+    public synchronized void updatePaidAmount(Reservation reservation, long paidAmount) {
+        reservation.setPaidAmount(paidAmount);
+    }
+
+    /**
+     * Records the paid amounts of reservations as refunded to their clients without changing them,
+     * as when the agency cancels the arrangement.
+     *
+     * @param refunded the refunded reservations.
+     */
+    public synchronized void recordRefunds(Collection<Reservation> refunded) {
+        for (Reservation reservation : refunded)
+            revenue.addRefund(reservation, reservation.getPaidAmount());
+    }
+
+    /**
+     * Brings the statuses of reservations up to the given date, re-evaluating only the reservations
+     * whose next status change falls on or before it. The re-evaluated reservations join the due batch.
+     *
+     * @param today the current date.
+     */
+    public synchronized void advanceTo(LocalDate today) {
+        for (Reservation reservation : statusChanges.poll(today)) {
+            reservation.refreshStatus(today);
+            dueBatch.add(reservation);
+        }
+
+        evaluatedOn = today;
+    }
+
+    /**
+     * Brings statuses up to the given date and takes the reservations re-evaluated since the last call,
+     * so that each status change is processed once.
+     *
+     * @param today the current date.
+     * @return the reservations whose status changed on a scheduled date, in the order they became due.
+     */
+    public synchronized List<Reservation> takeDueBatch(LocalDate today) {
+        advanceTo(today);
+
+        List<Reservation> batch = new ArrayList<>(dueBatch);
+        dueBatch.clear();
+        return batch;
+    }
+
+    private void advance() {
+        LocalDate today = AgencyClock.today();
+        if (!today.equals(evaluatedOn))
+            advanceTo(today);
+    }
+
+    private void scheduleStatusChange(Reservation reservation) {
+        if (reservation.getNextStatusChange() != null)
+            statusChanges.schedule(reservation, reservation.getNextStatusChange());
+        else
+            statusChanges.cancel(reservation);
+    }
+
+    /**
+     * Retrieves the reservations of a client.
+     *
+     * @param client the client.
+     * @return an unmodifiable list of the client's reservations.
+     */
+    public List<Reservation> getByClient(Client client) {
+        advance();
+        return group(byClient, client.getId());
+    }
+
+    /**
+     * Retrieves the reservations for an arrangement.
+     *
+     * @param arr the arrangement.
+     * @return an unmodifiable list of the arrangement's reservations.
+     */
+    public List<Reservation> getByArrangement(Arrangement arr) {
+        advance();
+        return group(byArrangement, arr.getId());
+    }
+
+    /**
+     * Retrieves the reservations with the given status.
+     *
+     * @param type the reservation type.
+     * @return a list of the reservations with the status.
+     */
+    public synchronized List<Reservation> getByStatus(ReservationType type) {
+        advance();
+        return new ArrayList<>(byStatus.get(type));
+    }
+
+    /**
+     * Retrieves the total amount still to be paid for active reservations.
+     *
+     * @return the total amount outstanding.
+     */
+    public synchronized long getTotalOutstanding() {
+        advance();
+        return aggregates.getTotalOutstanding();
+    }
+
+    /**
+     * Retrieves the amount a client spent on reservations.
+     *
+     * @param client the client.
+     * @return the amount spent by the client.
+     */
+    public synchronized long getSpent(Client client) {
+        advance();
+        return aggregates.getSpent(client);
+    }
+
+    /**
+     * Retrieves the amount a client still has to pay for active reservations.
+     *
+     * @param client the client.
+     * @return the amount remaining for the client.
+     */
+    public synchronized long getRemaining(Client client) {
+        advance();
+        return aggregates.getRemaining(client);
+    }
+
+    /**
+     * Retrieves the amount paid in for reservations of an arrangement that aren't canceled.
+     *
+     * @param arr the arrangement.
+     * @return the amount paid in for the arrangement.
+     */
+    public synchronized long getPaidIn(Arrangement arr) {
+        advance();
+        return aggregates.getPaidIn(arr);
+    }
+
+    /**
+     * Retrieves the revenue totals of the reservations with the given values.
+     *
+     * @param filter the fixed value of each filtered dimension.
+     * @return the revenue totals.
+     */
+    public synchronized RevenueMeasures getRevenue(Map<RevenueDimension, Object> filter) {
+        advance();
+        return revenue.rollup(filter);
+    }
+
+    /**
+     * Breaks down the revenue totals of the reservations with the given values by another dimension.
+     *
+     * @param filter    the fixed value of each filtered dimension.
+     * @param dimension the dimension to break the totals down by.
+     * @return the revenue totals for each value of the dimension.
+     */
+    public synchronized Map<Object, RevenueMeasures> getRevenueBreakdown(Map<RevenueDimension, Object> filter, RevenueDimension dimension) {
+        advance();
+        return revenue.drillDown(filter, dimension);
+    }
+
+    /**
+     * Recomputes the running totals from all reservations and replaces them with the result.
+     *
+     * @return the largest difference between a running total and its recomputed value, in cents.
+     */
+    public synchronized long checkAggregates() {
+        advance();
+
+        ReservationAggregates recomputed = ReservationAggregates.of(reservations);
+        long drift = aggregates.drift(recomputed);
+        aggregates = recomputed;
+
+        return drift;
+    }
+
+    /**
+     * Checks if the client already reserved the arrangement.
+     *
+     * @param client the client.
+     * @param arr    the arrangement.
+     * @return true if the arrangement is reserved by the client, false otherwise.
+     */
+    public boolean isReserved(Client client, Arrangement arr) {
+        return reservedKeys.contains(key(client.getId(), arr.getId()));
+    }
+
+    /**
+     * Retrieves all reservations.
+     *
+     * @return a list of all reservations.
+     */
+    public synchronized List<Reservation> getAll() {
+        advance();
+        return new ArrayList<>(reservations);
+    }
+
+    /**
+     * Retrieves all reservations as an array that is never changed afterwards, so it can be split and read
+     * by several threads. The same array is returned until reservations are added or removed.
+     *
+     * @return an array of all reservations.
+     */
+    public synchronized Reservation[] snapshot() {
+        advance();
+        if (snapshot == null)
+            snapshot = reservations.toArray(new Reservation[0]);
+        return snapshot;
+    }
+
+    /**
+     * Retrieves the number of reservations.
+     *
+     * @return the number of reservations.
+     */
+    public synchronized int size() {
+        return reservations.size();
+    }
+
+    private static List<Reservation> group(Map<Integer, List<Reservation>> groups, int id) {
+        List<Reservation> group = groups.get(id);
+        return group == null ? Collections.emptyList() : Collections.unmodifiableList(group);
+    }
+
+    private static long key(int clientID, int arrangementID) {
+        return ((long) clientID << 32) | (arrangementID & 0xFFFFFFFFL);
+    }
+}
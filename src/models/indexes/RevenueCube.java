@@ -0,0 +1,176 @@
+package models.indexes;
+
+import models.entities.Accommodation;
+import models.entities.Arrangement;
+import models.entities.Reservation;
+import models.enums.RevenueDimension;
+import models.enums.ReservationType;
+
+import java.time.YearMonth;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The RevenueCube class keeps revenue totals of reservations pre-aggregated by destination, trip month, transport
+ * and room type. There is one cuboid for every combination of dimensions, holding a cell for every combination
+ * of their values, so the totals for any combination of fixed values are a single lookup. Every change to a reservation
+ * updates the one cell it falls into in each cuboid, and drilling down into a dimension only walks the cells of one cuboid.
+ * A fixed value of null for the room type stands for arrangements without accommodation.
+ * The cube isn't synchronized; ReservationIndex only accesses it while holding its own lock.
+ */
+public class RevenueCube {
+    private final List<Map<List<Object>, RevenueMeasures>> cuboids = new ArrayList<>(CUBOIDS);
+
+    private final static RevenueDimension[] DIMENSIONS = RevenueDimension.values();
+    private final static int CUBOIDS = 1 << DIMENSIONS.length;
+
+    /**
+     * Constructs an empty cube.
+     */
+    public RevenueCube() {
+        for (int mask = 0; mask < CUBOIDS; mask++)
+            cuboids.add(new HashMap<>());
+    }
+
+    /**
+     * Adds the totals of a reservation in its current state.
+     *
+     * @param reservation the reservation.
+     */
+    public void add(Reservation reservation) {
+        apply(reservation, reservation.getReservationType(), reservation.getPaidAmount(), 1);
+    }
+
+    /**
+     * Subtracts the totals a reservation had in an earlier state.
+     *
+     * @param reservation the reservation.
+     * @param type        the type of the reservation in that state.
+     * @param paidAmount  the paid amount of the reservation in that state.
+     */
+    public void remove(Reservation reservation, ReservationType type, long paidAmount) {
+        apply(reservation, type, paidAmount, -1);
+    }
+
+    /**
+     * Records an amount refunded to the client of a reservation.
+     *
+     * @param reservation the reservation.
+     * @param amount      the refunded amount, in cents.
+     */
+    public void addRefund(Reservation reservation, long amount) {
+        Object[] coordinates = coordinates(reservation.getArrangement());
+
+        for (int mask = 0; mask < CUBOIDS; mask++)
+            cuboids.get(mask).computeIfAbsent(key(mask, coordinates), k -> new RevenueMeasures()).addRefund(amount);
+    }
+
+    private void apply(Reservation reservation, ReservationType type, long paidAmount, int sign) {
+        long booked = type == ReservationType.CANCELED ? 0 : reservation.getTotalPrice();
+        long outstanding = type == ReservationType.ACTIVE ? reservation.getTotalPrice() - paidAmount : 0;
+        Object[] coordinates = coordinates(reservation.getArrangement());
+
+        for (int mask = 0; mask < CUBOIDS; mask++) {
+            Map<List<Object>, RevenueMeasures> cuboid = cuboids.get(mask);
+            List<Object> key = key(mask, coordinates);
+            RevenueMeasures measures = cuboid.computeIfAbsent(key, k -> new RevenueMeasures());
+
+            measures.add(sign, booked, paidAmount, outstanding);
+            if (measures.isEmpty())
+                cuboid.remove(key);
+        }
+    }
+
+    /**
+     * Retrieves the totals of the reservations with the given values.
+     *
+     * @param filter the fixed value of each filtered dimension; dimensions that aren't in the map are summed over.
+     * @return a copy of the totals.
+     */
+    public RevenueMeasures rollup(Map<RevenueDimension, Object> filter) {
+        Object[] coordinates = new Object[DIMENSIONS.length];
+        int mask = mask(filter, coordinates);
+
+        RevenueMeasures measures = cuboids.get(mask).get(key(mask, coordinates));
+        return measures == null ? new RevenueMeasures() : new RevenueMeasures(measures);
+    }
+
+    /**
+     * Breaks down the totals of the reservations with the given values by the values of another dimension.
+     *
+     * @param filter    the fixed value of each filtered dimension; dimensions that aren't in the map are summed over.
+     * @param dimension the dimension to break the totals down by.
+     * @return a copy of the totals for each value of the dimension, ordered by value.
+     */
+    public Map<Object, RevenueMeasures> drillDown(Map<RevenueDimension, Object> filter, RevenueDimension dimension) {
+        Object[] coordinates = new Object[DIMENSIONS.length];
+        int filterMask = mask(filter, coordinates);
+        int mask = filterMask | (1 << dimension.ordinal());
+        List<Map.Entry<Object, RevenueMeasures>> cells = new ArrayList<>();
+
+        for (Map.Entry<List<Object>, RevenueMeasures> cell : cuboids.get(mask).entrySet()) {
+            List<Object> key = cell.getKey();
+            boolean matches = true;
+            Object value = null;
+
+            for (int d = 0, i = 0; d < DIMENSIONS.length && matches; d++) {
+                if ((mask & (1 << d)) == 0)
+                    continue;
+
+                Object keyValue = key.get(i++);
+                if (d == dimension.ordinal())
+                    value = keyValue;
+                if ((filterMask & (1 << d)) != 0)
+                    matches = keyValue == null ? coordinates[d] == null : keyValue.equals(coordinates[d]);
+            }
+
+            if (matches)
+                cells.add(new AbstractMap.SimpleImmutableEntry<>(value, new RevenueMeasures(cell.getValue())));
+        }
+
+        cells.sort(Comparator.comparing(cell -> cell.getKey() == null ? "" : cell.getKey().toString()));
+
+        Map<Object, RevenueMeasures> breakdown = new LinkedHashMap<>();
+        for (Map.Entry<Object, RevenueMeasures> cell : cells)
+            breakdown.put(cell.getKey(), cell.getValue());
+        return breakdown;
+    }
+
+    private static int mask(Map<RevenueDimension, Object> filter, Object[] coordinates) {
+        int mask = 0;
+
+        for (Map.Entry<RevenueDimension, Object> fixed : filter.entrySet()) {
+            mask |= 1 << fixed.getKey().ordinal();
+            coordinates[fixed.getKey().ordinal()] = fixed.getValue();
+        }
+
+        return mask;
+    }
+
+    private static Object[] coordinates(Arrangement arr) {
+        Accommodation accommodation = arr.getAccommodation();
+
+        Object[] coordinates = new Object[DIMENSIONS.length];
+        coordinates[RevenueDimension.DESTINATION.ordinal()] = arr.getDestination();
+        coordinates[RevenueDimension.TRIP_MONTH.ordinal()] = YearMonth.from(arr.getTripDate());
+        coordinates[RevenueDimension.TRANSPORT.ordinal()] = arr.getTransport();
+        coordinates[RevenueDimension.ROOM_TYPE.ordinal()] = accommodation == null ? null : accommodation.getRoomType();
+        return coordinates;
+    }
+
+    private static List<Object> key(int mask, Object[] coordinates) {
+        Object[] key = new Object[Integer.bitCount(mask)];
+
+        for (int d = 0, i = 0; d < DIMENSIONS.length; d++)
+            if ((mask & (1 << d)) != 0)
+                key[i++] = coordinates[d];
+
+        return Arrays.asList(key);
+    }
+}
@@ -0,0 +1,85 @@
+package models.indexes;
+
+/**
+ * The RevenueMeasures class holds the revenue totals of one cell of the revenue cube: the number of reservations,
+ * the price booked by reservations that aren't canceled, the amount paid to the agency, the amount still outstanding
+ * for active reservations, and the amount refunded to clients since the agency was loaded.
+ */
+public class RevenueMeasures {
+    private int count;
+    private long booked;
+    private long paid;
+    private long outstanding;
+    private long refunded;
+
+    RevenueMeasures() {
+    }
+
+    RevenueMeasures(RevenueMeasures measures) {
+        count = measures.count;
+        booked = measures.booked;
+        paid = measures.paid;
+        outstanding = measures.outstanding;
+        refunded = measures.refunded;
+    }
+
+    void add(int sign, long bookedAmount, long paidAmount, long outstandingAmount) {
+        count += sign;
+        booked += sign * bookedAmount;
+        paid += sign * paidAmount;
+        outstanding += sign * outstandingAmount;
+    }
+
+    void addRefund(long amount) {
+        refunded += amount;
+    }
+
+    boolean isEmpty() {
+        return count == 0 && refunded == 0;
+    }
+
+    /**
+     * Retrieves the number of reservations.
+     *
+     * @return the number of reservations.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Retrieves the total price of reservations that aren't canceled.
+     *
+     * @return the amount booked.
+     */
+    public long getBooked() {
+        return booked;
+    }
+
+    /**
+     * Retrieves the amount paid to the agency.
+     *
+     * @return the amount paid.
+     */
+    public long getPaid() {
+        return paid;
+    }
+
+    /**
+     * Retrieves the amount still to be paid for active reservations.
+     *
+     * @return the amount outstanding.
+     */
+    public long getOutstanding() {
+        return outstanding;
+    }
+
+    /**
+     * Retrieves the amount refunded to clients since the agency was loaded.
+     *
+     * @return the amount refunded.
+     */
+    public long getRefunded() {
+        return refunded;
+    }
+}
@@ -0,0 +1,137 @@
+package models.indexes;
+
+import models.entities.Admin;
+import models.entities.Client;
+import models.entities.User;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The UserDirectory class holds all users of the agency, indexed by username and partitioned by role.
+ * Lookups by username and role counts take constant time, and reads are safe while users are being added.
+ */
+public class UserDirectory {
+    private final Map<String, User> byUsername = new ConcurrentHashMap<>();
+    private final List<Admin> admins = new CopyOnWriteArrayList<>();
+    private final List<Client> clients = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructs a user directory containing the given admins and clients.
+     *
+     * @param admins  the admins to add.
+     * @param clients the clients to add.
+     */
+    public UserDirectory(List<Admin> admins, List<Client> clients) {
+        for (Admin admin : admins)
+            put(admin);
+        for (Client client : clients)
+            put(client);
+    }
+
+    /**
+     * Adds a user to the directory.
+     *
+     * @param user the user to add.
+     * @return true if the user was added, false if the username is already taken.
+     */
+    public synchronized boolean add(User user) {
+        return put(user);
+    }
+
+    private boolean put(User user) {
+        if (byUsername.putIfAbsent(user.getUsername(), user) != null)
+            return false;
+
+        if (user instanceof Admin)
+            admins.add((Admin) user);
+        else if (user instanceof Client)
+            clients.add((Client) user);
+
+        return true;
+    }
+
+    /**
+     * Retrieves the user with the given username.
+     *
+     * @param username the username to look up.
+     * @return the user, or null if there is no user with the username.
+     */
+    public User getByUsername(String username) {
+        return byUsername.get(username);
+    }
+
+    /**
+     * Checks if a user with the given username exists.
+     *
+     * @param username the username to check.
+     * @return true if the username is taken, false otherwise.
+     */
+    public boolean containsUsername(String username) {
+        return byUsername.containsKey(username);
+    }
+
+    /**
+     * Retrieves the user with the given credentials.
+     *
+     * @param username the username.
+     * @param password the password.
+     * @return the user, or null if the credentials don't match any user.
+     */
+    public User authenticate(String username, String password) {
+        User user = byUsername.get(username);
+        return user != null && user.isPasswordMatching(password) ? user : null;
+    }
+
+    /**
+     * Retrieves the number of admins.
+     *
+     * @return the number of admins.
+     */
+    public int adminCount() {
+        return admins.size();
+    }
+
+    /**
+     * Retrieves the number of clients.
+     *
+     * @return the number of clients.
+     */
+    public int clientCount() {
+        return clients.size();
+    }
+
+    /**
+     * Retrieves all admins.
+     *
+     * @return an unmodifiable view of the admins.
+     */
+    public List<Admin> getAdmins() {
+        return Collections.unmodifiableList(admins);
+    }
+
+    /**
+     * Retrieves all clients.
+     *
+     * @return an unmodifiable view of the clients.
+     */
+    public List<Client> getClients() {
+        return Collections.unmodifiableList(clients);
+    }
+
+    /**
+     * Retrieves all users, admins first.
+     *
+     * @return a list of all users.
+     */
+    public List<User> getUsers() {
+        List<User> users = new ArrayList<>(admins.size() + clients.size());
+        users.addAll(admins);
+        users.addAll(clients);
+        return users;
+    }
+}
@@ -3,6 +3,7 @@ package view;
 import controllers.AdminController;
 import implementation.admin.AdminViewer;
 import implementation.client.ArrangementViewer;
+import implementation.general.AgencyClock;
 import implementation.general.Navigation;
 import javafx.application.Application;
 import javafx.geometry.Pos;
@@ -19,6 +20,7 @@ import models.entities.Admin;
 import models.entities.Arrangement;
 import models.entities.Client;
 import models.entities.Reservation;
+import models.enums.RevenueDimension;
 
 import java.time.LocalDate;
 
@@ -209,14 +211,14 @@ public class AdminPage extends Application {
         dpTripDate.setDayCellFactory(picker -> new DateCell() {
             public void updateItem(LocalDate date, boolean empty) {
                 super.updateItem(date, empty);
-                setDisable(empty || !date.isAfter(LocalDate.now()));
+                setDisable(empty || !date.isAfter(AgencyClock.today()));
             }
         });
 
         dpTripDate2.setDayCellFactory(picker -> new DateCell() {
             public void updateItem(LocalDate date, boolean empty) {
                 super.updateItem(date, empty);
-                setDisable(empty || !date.isAfter(LocalDate.now()));
+                setDisable(empty || !date.isAfter(AgencyClock.today()));
             }
         });
 
@@ -291,10 +293,25 @@ public class AdminPage extends Application {
         Label lblClients = new Label("This arrangement is reserved by:");
         ListView<Client> lvClients = new ListView<>();
 
-        lvReservations.getItems().addAll(controller.getAgency().getReservations());
+        HBox hbBreakdown = new HBox(15);
+        ChoiceBox<RevenueDimension> cbDimension = new ChoiceBox<>();
+        Button btnAllRevenue = new Button("All");
+        Label lblBreakdown = new Label();
+        ListView<String> lvBreakdown = new ListView<>();
+
+        HBox hbPeriod = new HBox(15);
+        DatePicker dpFrom = new DatePicker();
+        DatePicker dpTo = new DatePicker();
+        Button btnPeriod = new Button("Trips in period");
+        Label lblPeriod = new Label();
+
+        lvReservations.getItems().addAll(controller.getAgency().getReservations().getAll());
+        cbDimension.getItems().addAll(RevenueDimension.values());
         hbRevenue.getChildren().addAll(lblRevenue, lblToPay);
+        hbBreakdown.getChildren().addAll(cbDimension, btnAllRevenue, lblBreakdown);
+        hbPeriod.getChildren().addAll(dpFrom, dpTo, btnPeriod, lblPeriod);
         vbClients.getChildren().addAll(lblClients, lvClients);
-        vbReservations.getChildren().addAll(hbRevenue, lvReservations, lblInfo, vbClients);
+        vbReservations.getChildren().addAll(hbRevenue, hbBreakdown, lvBreakdown, hbPeriod, lvReservations, lblInfo, vbClients);
         root.getChildren().add(vbReservations);
 
         lvReservations.setPrefWidth(700);
@@ -303,8 +320,28 @@ public class AdminPage extends Application {
         lblToPay.getStyleClass().add("title");
         lblClients.getStyleClass().add("title2");
         lblInfo.getStyleClass().add("title2");
+        lblBreakdown.getStyleClass().add("title2");
+        btnAllRevenue.getStyleClass().add("btn2");
+        hbBreakdown.setAlignment(Pos.CENTER_LEFT);
+        hbPeriod.setAlignment(Pos.CENTER_LEFT);
+        btnPeriod.getStyleClass().add("btn2");
+        lblPeriod.getStyleClass().add("title2");
+        dpFrom.setPromptText("From");
+        dpTo.setPromptText("To");
+        lvBreakdown.setPrefHeight(150);
         vbClients.setVisible(false);
 
+        cbDimension.setValue(RevenueDimension.DESTINATION);
+        controller.breakdownEvent(cbDimension, lblBreakdown, lvBreakdown);
+
+        cbDimension.setOnAction(e -> controller.breakdownEvent(cbDimension, lblBreakdown, lvBreakdown));
+        btnAllRevenue.setOnAction(e -> controller.resetBreakdownEvent(cbDimension, lblBreakdown, lvBreakdown));
+        btnPeriod.setOnAction(e -> controller.periodRevenueEvent(dpFrom, dpTo, lblPeriod));
+        lvBreakdown.setOnMouseClicked(e -> {
+            if (e.getClickCount() == 2)
+                controller.breakdownItemEvent(lvBreakdown.getSelectionModel().getSelectedIndex(), cbDimension, lblBreakdown, lvBreakdown);
+        });
+
         lvReservations.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             controller.reservationItemEvent(newSelection, lblInfo, lvClients);
             vbClients.setVisible(true);
@@ -1,10 +1,12 @@
 package view;
 
 import controllers.ClientController;
+import implementation.client.ArrangementQuery;
 import implementation.client.ArrangementViewer;
 import implementation.client.ReservationManager;
 import implementation.general.LogAlert;
 import implementation.general.MessageDisplay;
+import implementation.general.Money;
 import implementation.general.Navigation;
 import javafx.application.Application;
 import javafx.geometry.Pos;
@@ -21,11 +23,11 @@ import models.entities.Arrangement;
 import models.entities.BankAccount;
 import models.entities.Client;
 import models.entities.Reservation;
+import models.enums.ArrangementSort;
 import models.enums.ReservationType;
 import models.enums.RoomType;
 import models.enums.Transport;
-
-import java.time.LocalDate;
+import models.indexes.ArrangementSearchResult;
 
 public class ClientPage extends Application {
     private final Client client;
@@ -41,15 +43,7 @@ public class ClientPage extends Application {
     public void start(Stage stage) throws Exception {
         controller = new ClientController();
 
-        ReservationManager.returnMoneyCanceledReservations(
-                controller.getAgency().getReservations(),
-                client,
-                bankAccount,
-                controller.getAgency().getAgencyBankAccount(),
-                LocalDate.parse(LogAlert.updateLogs(client)),
-                LocalDate.now()
-        );
-        ReservationManager.markReservations(controller.getAgency().getReservations(), client);
+        LogAlert.updateLogs(client);
 
         HBox root = new HBox(20);
         root.setId("root");
@@ -66,7 +60,7 @@ public class ClientPage extends Application {
             MessageDisplay.showAlert(ReservationManager.ALERT_CLIENT_TO_PAY, Alert.AlertType.INFORMATION);
 
         if (LogAlert.clientAlert(client))
-            MessageDisplay.showAlert("Admin canceled arrangement!\nBalance: " + bankAccount.getBalance(), Alert.AlertType.INFORMATION);
+            MessageDisplay.showAlert("Admin canceled arrangement!\nBalance: " + Money.format(bankAccount.getBalance()), Alert.AlertType.INFORMATION);
     }
 
     private void setupScene(HBox root, Stage stage, int scene) {
@@ -125,6 +119,8 @@ public class ClientPage extends Application {
 
         RadioButton rb1 = new RadioButton("Trip date");
         RadioButton rb2 = new RadioButton("Price");
+        RadioButton rb3 = new RadioButton("Stars");
+        RadioButton rb4 = new RadioButton("Trip length");
         ChoiceBox<String> cbSort = new ChoiceBox<>();
         Button btnSort = new Button("Sort");
         ToggleGroup tg = new ToggleGroup();
@@ -142,18 +138,22 @@ public class ClientPage extends Application {
 
         ListView<Arrangement> lv = new ListView<>();
 
+        Label lblFacets = new Label();
+
         Button btnReserve = new Button("Reserve");
         Label lblMessage = new Label();
 
         cbSort.getItems().addAll("Ascending", "Descending");
         cbTransport.getItems().addAll("Select transport", "Bus", "Plane", "Self-transport");
         cbRoomType.getItems().addAll("Select room type", "Single-room", "Double-room", "Triple-room", "Apartment");
-        lv.getItems().addAll(ArrangementViewer.arrangementsOnOffer(controller.getAgency().getArrangements()));
-        tg.getToggles().addAll(rb1, rb2);
-        hbSort.getChildren().addAll(rb1, rb2, cbSort, btnSort);
+        ArrangementSearchResult offer = ArrangementViewer.searchArrangements(controller.getAgency().getArrangements(), ArrangementQuery.ALL);
+        lv.getItems().addAll(offer.getArrangements());
+        lblFacets.setText(ArrangementViewer.facetSummary(offer.getFacetCounts()));
+        tg.getToggles().addAll(rb1, rb2, rb3, rb4);
+        hbSort.getChildren().addAll(rb1, rb2, rb3, rb4, cbSort, btnSort);
         hb1.getChildren().addAll(tfPrice, tfDestination, tfStarReview, dpTrip, dpArrival);
         hb2.getChildren().addAll(cbRoomType, cbTransport, btnFilter, btnReset);
-        vbFilter.getChildren().addAll(hb1, hb2);
+        vbFilter.getChildren().addAll(hb1, hb2, lblFacets);
         hbReserve.getChildren().addAll(btnReserve, lblMessage);
         vbArrangements.getChildren().addAll(hbSort, vbFilter, lv, hbReserve);
         root.getChildren().add(vbArrangements);
@@ -179,15 +179,17 @@ public class ClientPage extends Application {
         tfDestination.setPromptText("Destination");
         tfStarReview.setPromptText("Star review");
 
-        btnSort.setOnAction(e -> {
-            if (rb1.isSelected())
-                ArrangementViewer.sortListView(lv, 1, cbSort.getValue());
-            else
-                ArrangementViewer.sortListView(lv, 2, cbSort.getValue());
-        });
-
-        btnFilter.setOnAction(e -> lv.getItems().setAll(ArrangementViewer.filterArrangements(
+        btnSort.setOnAction(e -> ArrangementViewer.sortListView(
                 controller.getAgency().getArrangements(),
+                lv,
+                ArrangementSort.fromString(((RadioButton) tg.getSelectedToggle()).getText()),
+                cbSort.getValue()
+        ));
+
+        btnFilter.setOnAction(e -> controller.filterBtnEvent(
+                lv,
+                lblMessage,
+                lblFacets,
                 tfPrice.getText(),
                 tfDestination.getText(),
                 tfStarReview.getText(),
@@ -195,7 +197,7 @@ public class ClientPage extends Application {
                 Transport.fromString(cbTransport.getValue()),
                 dpTrip.getValue(),
                 dpArrival.getValue()
-        )));
+        ));
 
         btnReserve.setOnAction(e -> controller.reservationBtnEvent(
                 stage,
@@ -209,6 +211,7 @@ public class ClientPage extends Application {
         btnReset.setOnAction(e -> ArrangementViewer.reset(
                 controller.getAgency().getArrangements(),
                 lv,
+                lblFacets,
                 inputs,
                 dpTrip,
                 dpArrival,
@@ -304,7 +307,7 @@ public class ClientPage extends Application {
 
         lvReservations.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             if (newSelection != null && newSelection.getReservationType() == ReservationType.ACTIVE)
-                lblInfo.setText("Remaining for this reservation: " + newSelection.unpaidAmount());
+                lblInfo.setText("Remaining for this reservation: " + Money.format(newSelection.unpaidAmount()));
         });
 
 